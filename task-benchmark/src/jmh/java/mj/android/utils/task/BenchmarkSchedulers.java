@@ -0,0 +1,36 @@
+package mj.android.utils.task;
+
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * 작업을 실행할 Scheduler 를 선택하고, 결과는 main looper 대신 작업 스레드에서 바로 전달한다.
+ */
+@State(Scope.Benchmark)
+public class BenchmarkSchedulers {
+    @Param({"computation", "io", "immediate"})
+    public String scheduler;
+
+    @Setup
+    public void setUpSchedulers() {
+        Schedulers.setBackground(select(scheduler));
+        Schedulers.setDelivery(Schedulers.immediate());
+    }
+
+    static Scheduler select(String name) {
+        switch (name) {
+            case "computation":
+                return Schedulers.computation();
+            case "io":
+                return Schedulers.io();
+            case "single":
+                return Schedulers.single();
+            case "immediate":
+                return Schedulers.immediate();
+            default:
+                throw new IllegalArgumentException("unknown scheduler : " + name);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package mj.android.utils.task;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DelayedTask 를 실행하고 리스너로 결과를 받기 까지의 비용.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DeliveryBenchmark extends BenchmarkSchedulers {
+    private static final Callable2<Integer> SOURCE = new Callable2<Integer>() {
+        @Override
+        public Integer call() throws Throwable {
+            return 1;
+        }
+    };
+
+    /**
+     * 등록할 TaskMonitor. none 이면 {@link TaskMonitor#NONE} 을 사용한다.
+     */
+    @Param({"none", "histogram"})
+    public String monitor;
+
+    @Setup
+    public void setUpMonitor() {
+        Tasks.setMonitor("histogram".equals(monitor) ? new HistogramTaskMonitor() : TaskMonitor.NONE);
+    }
+
+    @Benchmark
+    public void executeAndDeliver(final Blackhole bh) throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        Tasks.newTask(SOURCE).delayed()
+                .result(new ResultListener<Integer>() {
+                    @Override
+                    public void onResult(Integer result) {
+                        bh.consume(result);
+                    }
+                })
+                .atLast(new Runnable() {
+                    @Override
+                    public void run() {
+                        latch.countDown();
+                    }
+                })
+                .execute();
+        latch.await();
+    }
+}
@@ -0,0 +1,69 @@
+package mj.android.utils.task;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 여러 하위 Task 를 순차, 병렬로 실행하는 비용. 하위 Task 는 work 만큼 CPU 를 사용한다.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class FanOutBenchmark extends BenchmarkSchedulers {
+    @Param({"2", "100", "10000"})
+    public int children;
+
+    @Param({"0", "1000"})
+    public long work;
+
+    private List<Task<Long>> children() {
+        final long tokens = work;
+        Callable2<Long> leaf = new Callable2<Long>() {
+            @Override
+            public Long call() throws Throwable {
+                Blackhole.consumeCPU(tokens);
+                return tokens;
+            }
+        };
+
+        List<Task<Long>> list = new ArrayList<>(children);
+        for (int i = 0; i < children; i++) {
+            list.add(Tasks.newTask(leaf));
+        }
+        return list;
+    }
+
+    @Benchmark
+    public Object serial() throws Throwable {
+        List<Task<Long>> list = children();
+        return Tasks.Parallel.serialTask(list.toArray(new Task[list.size()])).get();
+    }
+
+    @Benchmark
+    public Object parallel() throws Throwable {
+        List<Task<Long>> list = children();
+        return Tasks.Parallel.parallelTask(list.toArray(new Task[list.size()])).get();
+    }
+
+    @Benchmark
+    public Object all() throws Throwable {
+        return Tasks.Parallel.all(children()).get();
+    }
+
+    @Benchmark
+    public Object reduce() throws Throwable {
+        return Tasks.Parallel.reduce(children(), 0L, new BiFunc<Long, Long, Long>() {
+            @Override
+            public Long func(Long a, Long b) throws Throwable {
+                return a + b;
+            }
+        }).get();
+    }
+}
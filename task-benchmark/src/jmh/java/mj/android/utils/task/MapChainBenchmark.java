@@ -0,0 +1,67 @@
+package mj.android.utils.task;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * map() 으로 이어진 Task 를 만들고 실행하는 비용.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MapChainBenchmark {
+    private static final Callable2<Integer> SOURCE = new Callable2<Integer>() {
+        @Override
+        public Integer call() throws Throwable {
+            return 0;
+        }
+    };
+
+    private static final Func<Integer, Integer> INCREMENT = new Func<Integer, Integer>() {
+        @Override
+        public Integer func(Integer integer) throws Throwable {
+            return integer + 1;
+        }
+    };
+
+    @Param({"1", "10", "100"})
+    public int depth;
+
+    @Benchmark
+    public Integer chain() throws Throwable {
+        Task<Integer> task = Tasks.newTask(SOURCE);
+        for (int i = 0; i < depth; i++) {
+            task = task.map(INCREMENT);
+        }
+        return task.get();
+    }
+
+    /**
+     * 만들어진 체인을 다시 실행하는 비용.
+     */
+    @Benchmark
+    public Integer rerun(Chain chain) throws Throwable {
+        return chain.task.get();
+    }
+
+    @State(Scope.Thread)
+    public static class Chain {
+        Task<Integer> task;
+
+        @org.openjdk.jmh.annotations.Setup
+        public void setUp(MapChainBenchmark benchmark) {
+            Task<Integer> t = Tasks.newTask(SOURCE);
+            for (int i = 0; i < benchmark.depth; i++) {
+                t = t.map(INCREMENT);
+            }
+            task = t;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package mj.android.utils.task;
+
+import android.support.annotation.NonNull;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 실행 슬롯이 모두 찬 TaskQueue 에 작업을 넣고 취소하는 비용.
+ * <p>
+ * 작업은 실제로 실행되지 않으므로, 대기열 관리와 취소 비용만 측정된다.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class TaskQueueBenchmark {
+    private static final Executor DISCARD = new Executor() {
+        @Override
+        public void execute(@NonNull Runnable command) {
+        }
+    };
+
+    private static final Task<Object> TASK = Tasks.newTask(new Callable2<Object>() {
+        @Override
+        public Object call() throws Throwable {
+            return null;
+        }
+    });
+
+    /**
+     * 미리 채워둘 대기 작업 수
+     */
+    @Param({"16", "1024"})
+    public int backlog;
+
+    private TaskQueue queue;
+    private String[] tags;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        queue = new TaskQueue().scheduler(Schedulers.from(DISCARD)).maxConcurrency(1);
+        queue.enqueue("running", TASK.clone()).execute();
+
+        tags = new String[backlog];
+        for (int i = 0; i < backlog; i++) {
+            tags[i] = "tag" + i;
+            queue.enqueue(tags[i], TASK.clone()).execute();
+        }
+        next = 0;
+    }
+
+    /**
+     * 가장 오래된 작업을 취소하고 같은 tag 로 다시 넣는다.
+     */
+    @Benchmark
+    public int cancelOldestAndEnqueue() {
+        String tag = tags[next];
+        next = (next + 1) % tags.length;
+        queue.cancel(tag);
+        queue.enqueue(tag, TASK.clone()).execute();
+        return queue.getQueueDepth();
+    }
+
+    /**
+     * 새 작업을 넣자마자 취소한다.
+     */
+    @Benchmark
+    public int enqueueAndCancel() {
+        queue.enqueue("churn", TASK.clone()).execute();
+        queue.cancel("churn");
+        return queue.getQueueDepth();
+    }
+}
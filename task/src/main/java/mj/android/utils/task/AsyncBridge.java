@@ -0,0 +1,32 @@
+package mj.android.utils.task;
+
+/**
+ * {@link AsyncCallable} 을 {@link Callable2} 로 실행한다.
+ * <p>
+ * {@link #call()} 은 작업이 끝날 때 까지 호출한 스레드에서 기다린다.
+ * DelayedTask 로 실행될 때는 {@link CallableDelayedTaskImpl} 이 {@link AsyncChain} 으로 작업을 시작한 뒤 바로 스레드를 놓는다.
+ */
+class AsyncBridge<T> implements Callable2<T> {
+    final AsyncCallable<T> async;
+
+    AsyncBridge(AsyncCallable<T> async) {
+        this.async = async;
+    }
+
+    /**
+     * 기다리는 도중 deadline 이 지나거나 인터럽트되면 작업에 취소를 전달한다.
+     */
+    @Override
+    public T call() throws Throwable {
+        TaskContext context = TaskContext.fork();
+        AsyncCompletion<T> completion = new AsyncCompletion<>(context);
+        try {
+            completion.start(async);
+            return completion.await(TaskContext.remainingNanos());
+        } finally {
+            if (!completion.isDone())
+                context.cancel();
+            context.close();
+        }
+    }
+}
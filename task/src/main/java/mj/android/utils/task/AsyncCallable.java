@@ -0,0 +1,15 @@
+package mj.android.utils.task;
+
+import android.support.annotation.NonNull;
+
+/**
+ * 결과를 반환하는 대신 {@link Completion} 으로 알리는 작업. 비동기 I/O 처럼 기다리는 동안 스레드가 필요 없는 작업에 사용한다.
+ * <p>
+ * {@link #call(Completion)} 은 작업을 시작만 하고 바로 반환해야 하며, 던진 예외는 {@link Completion#fail(Throwable)} 로 처리된다.
+ *
+ * @see Tasks#fromAsync(AsyncCallable)
+ * @see Tasks#toAsync(Task)
+ */
+public interface AsyncCallable<T> {
+    void call(@NonNull Completion<T> completion) throws Throwable;
+}
@@ -0,0 +1,175 @@
+package mj.android.utils.task;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * map, timeout, limited 로 감싼 {@link AsyncBridge} 를 스레드를 점유하지 않고 실행한다.
+ * <p>
+ * 작업을 시작한 뒤 바로 반환하고, 작업이 끝나면 끝낸 스레드에서 안쪽부터 차례로 각 단계를 적용한 뒤
+ * {@link #onDone(Object, Throwable)} 을 호출한다. timeout 은 {@link TimerWheel} 이 해당 context 를 취소하여 처리한다.
+ */
+abstract class AsyncChain<T> {
+    /**
+     * 바깥쪽부터의 {@link MapPipeline} 또는 {@link TimeoutCallable}. 마지막은 {@link AsyncBridge} 이다.
+     */
+    private final Object[] layers;
+    private final TaskContext[] contexts;
+    private final Expiry[] expiries;
+
+    /**
+     * @param layers {@link #layersOf(Callable2, Limiter)} 가 반환한 배열
+     */
+    AsyncChain(Object[] layers) {
+        this.layers = layers;
+        this.contexts = new TaskContext[layers.length];
+        this.expiries = new Expiry[layers.length];
+    }
+
+    /**
+     * 작업을 이루는 단계를 바깥쪽부터 나열한다. {@link RetryCallable} 은 가장 바깥에 있을 때만 건너뛰며,
+     * 재시도는 호출한 쪽에서 처리해야 한다.
+     *
+     * @param permit 호출한 쪽이 미리 받아 둔 허가. 같은 limiter 의 {@link LimitedCallable} 하나를 건너뛴다.
+     * @return {@link AsyncBridge} 로 끝나지 않거나, 스레드에서 기다려야 하는 단계가 있으면 null
+     */
+    static Object[] layersOf(Callable2<?> c, Limiter permit) {
+        if (c instanceof RetryCallable)
+            c = ((RetryCallable<?>) c).source();
+
+        int count = 0;
+        Limiter p = permit;
+        for (Callable2<?> i = c; ; ) {
+            if (i instanceof AsyncBridge) {
+                break;
+            } else if (i instanceof MapPipeline) {
+                count++;
+                i = ((MapPipeline<?>) i).source();
+            } else if (i instanceof TimeoutCallable) {
+                count++;
+                i = ((TimeoutCallable<?>) i).callable;
+            } else if (i instanceof LimitedCallable && p != null && ((LimitedCallable<?>) i).limiter == p) {
+                p = null;
+                i = ((LimitedCallable<?>) i).callable;
+            } else {
+                return null;
+            }
+        }
+
+        Object[] layers = new Object[count + 1];
+        int n = 0;
+        for (Callable2<?> i = c; ; ) {
+            if (i instanceof AsyncBridge) {
+                layers[n] = i;
+                return layers;
+            } else if (i instanceof MapPipeline) {
+                layers[n++] = i;
+                i = ((MapPipeline<?>) i).source();
+            } else if (i instanceof TimeoutCallable) {
+                layers[n++] = i;
+                i = ((TimeoutCallable<?>) i).callable;
+            } else {
+                i = ((LimitedCallable<?>) i).callable;
+            }
+        }
+    }
+
+    /**
+     * context 안에서 작업을 시작한다. timeout 단계마다 하위 context 를 만든다.
+     */
+    void start(TaskContext context) {
+        final int last = layers.length - 1;
+        TaskContext prev = TaskContext.enter(context);
+        try {
+            for (int i = 0; i < last; i++) {
+                if (layers[i] instanceof TimeoutCallable) {
+                    Expiry expiry = new Expiry(((TimeoutCallable<?>) layers[i]).timeoutNanos);
+                    expiries[i] = expiry;
+                    TaskContext.enter(expiry.context);
+                }
+                contexts[i] = TaskContext.current();
+            }
+
+            //noinspection unchecked
+            AsyncCallable<Object> async = ((AsyncBridge<Object>) layers[last]).async;
+            new AsyncCompletion<Object>(TaskContext.current()) {
+                @Override
+                void onDone(Object result, Throwable error) {
+                    finish(result, error);
+                }
+            }.start(async);
+        } finally {
+            TaskContext.restore(prev);
+        }
+    }
+
+    /**
+     * 안쪽 단계부터 결과에 적용한다. map 은 그 단계의 context 안에서 실행된다.
+     */
+    private void finish(Object value, Throwable error) {
+        for (int i = layers.length - 2; i >= 0; i--) {
+            Expiry expiry = expiries[i];
+            if (expiry != null) {
+                if (expiry.close()) {
+                    value = null;
+                    error = new TimeoutException("deadline exceeded");
+                }
+            } else if (error == null) {
+                TaskContext prev = TaskContext.enter(contexts[i]);
+                try {
+                    value = ((MapPipeline<?>) layers[i]).apply(value);
+                } catch (Throwable t) {
+                    error = t;
+                } finally {
+                    TaskContext.restore(prev);
+                }
+            }
+        }
+
+        //noinspection unchecked
+        onDone((T) value, error);
+    }
+
+    abstract void onDone(T result, Throwable error);
+
+    /**
+     * 하나의 timeout 단계. 만료되면 그 단계의 context 를 취소하여 안쪽 작업을 결과 없이 끝낸다.
+     */
+    private static final class Expiry implements Runnable {
+        final TaskContext context;
+        private final AtomicBoolean expired = new AtomicBoolean(false);
+        private final Cancelable timer;
+
+        /**
+         * 현재 스레드의 context 아래에 만든다.
+         */
+        Expiry(long timeoutNanos) {
+            long now = System.nanoTime();
+            long deadline = TaskContext.earlier(now + timeoutNanos, TaskContext.deadline());
+            context = TaskContext.fork(deadline);
+            if (deadline - now > 0) {
+                timer = TimerWheel.get().schedule(this, Schedulers.immediate(), deadline - now, TimeUnit.NANOSECONDS);
+            } else {
+                timer = null;
+                run();
+            }
+        }
+
+        @Override
+        public void run() {
+            expired.set(true);
+            context.cancel();
+        }
+
+        /**
+         * @return 만료되었는지 여부
+         */
+        boolean close() {
+            if (timer != null)
+                timer.cancel();
+            context.close();
+            return expired.get();
+        }
+    }
+}
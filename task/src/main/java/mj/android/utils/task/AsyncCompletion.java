@@ -0,0 +1,125 @@
+package mj.android.utils.task;
+
+import android.support.annotation.NonNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 하나의 {@link TaskContext} 에 속한 {@link Completion}. context 에 등록되어, context 가 취소되면 결과 없이 끝난다.
+ * <p>
+ * 끝나면 완료한 스레드에서 {@link #onDone(Object, Throwable)} 이 호출되며, {@link #await(long)} 로 기다릴 수도 있다.
+ */
+class AsyncCompletion<T> implements Completion<T>, Cancelable {
+    private final TaskContext context;
+    private final AtomicBoolean done = new AtomicBoolean(false);
+    private boolean finished = false;
+    private T result;
+    private Throwable error;
+
+    AsyncCompletion(TaskContext context) {
+        this.context = context;
+    }
+
+    /**
+     * context 에 등록한 뒤 작업을 시작한다. 이미 취소되었다면 시작하지 않고 끝낸다.
+     */
+    void start(AsyncCallable<T> async) {
+        if (!context.register(this)) {
+            cancel();
+            return;
+        }
+
+        TaskContext prev = TaskContext.enter(context);
+        try {
+            async.call(this);
+        } catch (Throwable t) {
+            fail(t);
+        } finally {
+            TaskContext.restore(prev);
+        }
+    }
+
+    @Override
+    public boolean complete(T result) {
+        if (!done.compareAndSet(false, true))
+            return false;
+        this.result = result;
+        finish();
+        return true;
+    }
+
+    @Override
+    public boolean fail(@NonNull Throwable t) {
+        if (!done.compareAndSet(false, true))
+            return false;
+        this.error = t;
+        finish();
+        return true;
+    }
+
+    @Override
+    public void onCancel(@NonNull Cancelable c) {
+        if (!context.register(c))
+            c.cancel();
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return context.isCancelled();
+    }
+
+    /**
+     * context 가 취소되면 호출된다. 결과 없이 끝낸다.
+     */
+    @Override
+    public boolean cancel() {
+        if (!done.compareAndSet(false, true))
+            return false;
+        finish();
+        return true;
+    }
+
+    boolean isDone() {
+        return done.get();
+    }
+
+    private void finish() {
+        context.unregister(this);
+        synchronized (this) {
+            finished = true;
+            notifyAll();
+        }
+        onDone(result, error);
+    }
+
+    void onDone(T result, Throwable error) {
+    }
+
+    /**
+     * 끝날 때 까지 기다린다.
+     *
+     * @param timeoutNanos {@link Long#MAX_VALUE} 이면 제한 없이 기다린다.
+     * @return 취소되었다면 null
+     */
+    T await(long timeoutNanos) throws Throwable {
+        synchronized (this) {
+            long remaining = timeoutNanos;
+            while (!finished) {
+                if (timeoutNanos == Long.MAX_VALUE) {
+                    wait();
+                } else {
+                    if (remaining <= 0)
+                        throw new TimeoutException("deadline exceeded");
+                    long start = System.nanoTime();
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                    remaining -= System.nanoTime() - start;
+                }
+            }
+        }
+        if (error != null)
+            throw error;
+        return result;
+    }
+}
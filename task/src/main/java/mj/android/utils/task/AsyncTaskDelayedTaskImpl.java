@@ -5,50 +5,160 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 class AsyncTaskDelayedTaskImpl<T> implements DelayedTask<T> {
+    private final Callable2<T> callable;
     final InternalAsyncTask<T> task;
+    private ResultListener<T> resultListener;
+    private ErrorListener errorListener;
+    private Runnable atLastListener;
+    private Scheduler subscribeScheduler;
+    private Scheduler observeScheduler;
+    private String tag;
+    private volatile DelayedTask<T> scheduled;
 
     AsyncTaskDelayedTaskImpl(Callable2<T> c) {
+        callable = c;
         task = new InternalAsyncTask<T>().callable(c);
     }
 
     @Override
     public boolean cancel() {
-        Tasks.sendCancelToCancelable(task.callable);
-        return task.cancel(true);
+        DelayedTask<T> s = scheduled;
+        if (s != null)
+            return s.cancel();
+
+        task.cancelRun();
+        boolean cancelled = task.cancel(true);
+        if (cancelled && Tasks.monitor() != TaskMonitor.NONE)
+            Tasks.monitor().onCancel(tag, System.nanoTime());
+        return cancelled;
     }
 
     @Override
     public DelayedTask<T> result(ResultListener<T> r) {
-        task.result(r);
+        this.resultListener = r;
         return this;
     }
 
     @Override
     public DelayedTask<T> error(ErrorListener e) {
-        task.error(e);
+        this.errorListener = e;
         return this;
     }
 
     @Override
     public DelayedTask<T> atLast(@Nullable Runnable r) {
-        task.postRunnable(r);
+        this.atLastListener = r;
+        return this;
+    }
+
+    @Override
+    public DelayedTask<T> tag(@Nullable String tag) {
+        this.tag = tag;
+        return this;
+    }
+
+    @Override
+    public DelayedTask<T> subscribeOn(@NonNull Scheduler scheduler) {
+        this.subscribeScheduler = scheduler;
+        return this;
+    }
+
+    /**
+     * AsyncTask 는 항상 UI 스레드에서 결과를 받으므로, 다른 Scheduler 가 지정되면 그 곳으로 한 번 더 전달한다.
+     */
+    @Override
+    public DelayedTask<T> observeOn(@NonNull Scheduler scheduler) {
+        this.observeScheduler = scheduler;
         return this;
     }
 
     @Override
     public DelayedTask<T> clone() {
-        return new AsyncTaskDelayedTaskImpl<>(task.callable);
+        AsyncTaskDelayedTaskImpl<T> clone = new AsyncTaskDelayedTaskImpl<>(callable);
+        clone.subscribeScheduler = subscribeScheduler;
+        clone.observeScheduler = observeScheduler;
+        clone.tag = tag;
+        return clone;
     }
 
     @Override
     public void execute() {
-        task.executeOnExecutor(Tasks.EXECUTOR);
+        execute(subscribeScheduler != null ? subscribeScheduler : Schedulers.background());
     }
 
     @Override
     public void execute(@NonNull Executor executor) {
+        final Scheduler observer = observeScheduler != null ? observeScheduler : Schedulers.delivery();
+        final boolean traced = Tasks.monitor() != TaskMonitor.NONE;
+
+        if (observer == Schedulers.mainThread()) {
+            if (traced)
+                task.trace(tag, System.nanoTime(), true);
+            task.result(resultListener).error(errorListener).postRunnable(atLastListener);
+        } else {
+            if (traced)
+                task.trace(tag, System.nanoTime(), false);
+            final Delivery<T> delivery = Delivery.obtain(resultListener, errorListener, atLastListener);
+            task.result(new ResultListener<T>() {
+                @Override
+                public void onResult(T result) {
+                    task.traceDelivery(delivery);
+                    delivery.result(result);
+                }
+            }).error(new ErrorListener() {
+                @Override
+                public void onError(Throwable t) {
+                    task.traceDelivery(delivery);
+                    delivery.error(t);
+                }
+            }).postRunnable(new Runnable() {
+                @Override
+                public void run() {
+                    delivery.post(observer);
+                }
+            }).cancelRunnable(new Runnable() {
+                @Override
+                public void run() {
+                    delivery.recycle();
+                }
+            });
+        }
         task.executeOnExecutor(executor);
     }
-}
\ No newline at end of file
+
+    @Override
+    public void executeAfter(long delay, @NonNull TimeUnit unit) {
+        toScheduled().executeAfter(delay, unit);
+    }
+
+    @Override
+    public void executeAtFixedRate(long initialDelay, long period, @NonNull TimeUnit unit) {
+        toScheduled().executeAtFixedRate(initialDelay, period, unit);
+    }
+
+    @Override
+    public void executeWithFixedDelay(long initialDelay, long delay, @NonNull TimeUnit unit) {
+        toScheduled().executeWithFixedDelay(initialDelay, delay, unit);
+    }
+
+    /**
+     * AsyncTask 는 한 번만 실행할 수 있고 UI 스레드에서 시작해야 하므로,
+     * 예약 실행은 같은 설정의 {@link CallableDelayedTaskImpl} 에 맡긴다.
+     */
+    private DelayedTask<T> toScheduled() {
+        DelayedTask<T> s = new CallableDelayedTaskImpl<>(callable)
+                .result(resultListener)
+                .error(errorListener)
+                .atLast(atLastListener)
+                .tag(tag);
+        if (subscribeScheduler != null)
+            s.subscribeOn(subscribeScheduler);
+        if (observeScheduler != null)
+            s.observeOn(observeScheduler);
+        scheduled = s;
+        return s;
+    }
+}
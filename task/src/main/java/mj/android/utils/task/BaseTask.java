@@ -1,22 +1,92 @@
 package mj.android.utils.task;
 
-public class BaseTask<T> implements Task<T>, Cloneable {
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 작업의 설명. 실행 마다의 상태는 {@link TaskContext} 에 있으므로, 같은 Task 를 여러 번 실행할 수 있다.
+ */
+public class BaseTask<T> implements Task<T>, Cancelable, Cloneable {
 
     private Callable2<T> callable2;
+    /**
+     * {@link #get()} 으로 시작되어 실행중인 실행. 하나이면 TaskContext, 여럿이면 ArrayList 이다. this 로 보호된다.
+     */
+    private Object running;
 
     public BaseTask(Callable2<T> callable2) {
         this.callable2 = callable2;
     }
 
+    /**
+     * 다른 작업 안에서 호출되면 그 실행에 속하고, 아니면 새 실행을 시작한다.
+     */
     @Override
     public T get() throws Throwable {
+        if (TaskContext.current() != null)
+            return TaskContext.call(callable2);
+
+        TaskContext context = new TaskContext();
+        started(context);
+        TaskContext.enter(context);
         try {
-            return callable2.call();
+            return TaskContext.call(callable2);
         } finally {
-            callable2 = null;
+            TaskContext.restore(null);
+            ended(context);
+        }
+    }
+
+    private synchronized void started(TaskContext context) {
+        if (running == null) {
+            running = context;
+        } else if (running instanceof ArrayList) {
+            //noinspection unchecked
+            ((ArrayList<TaskContext>) running).add(context);
+        } else {
+            ArrayList<TaskContext> list = new ArrayList<>(4);
+            list.add((TaskContext) running);
+            list.add(context);
+            running = list;
         }
     }
 
+    private synchronized void ended(TaskContext context) {
+        if (running == context) {
+            running = null;
+        } else if (running instanceof ArrayList) {
+            ArrayList list = (ArrayList) running;
+            list.remove(context);
+            if (list.isEmpty())
+                running = null;
+        }
+    }
+
+    Callable2<T> callable() {
+        return callable2;
+    }
+
+    /**
+     * {@link #get()} 으로 시작되어 실행중인 모든 실행과 그 하위 작업에 취소를 요청한다.
+     */
+    @Override
+    public boolean cancel() {
+        Object r;
+        synchronized (this) {
+            r = running;
+            running = null;
+        }
+
+        if (r instanceof ArrayList) {
+            boolean cancelled = false;
+            for (Object o : (ArrayList) r) {
+                cancelled |= ((TaskContext) o).cancel();
+            }
+            return cancelled;
+        }
+        return r != null && ((TaskContext) r).cancel();
+    }
+
     @Override
     public DelayedTask<T> delayed() {
         return new CallableDelayedTaskImpl<>(callable2);
@@ -24,7 +94,27 @@ public class BaseTask<T> implements Task<T>, Cloneable {
 
     @Override
     public <V> Task<V> map(Func<T, V> func) {
-        return new BaseTask<>(new Tasks.ConvertCallable<>(callable2, func));
+        return new BaseTask<>(MapPipeline.map(callable2, func));
+    }
+
+    @Override
+    public Task<T> timeout(long timeout, TimeUnit unit) {
+        return new BaseTask<>(new TimeoutCallable<>(callable2, timeout, unit));
+    }
+
+    @Override
+    public Task<T> retry(RetryPolicy policy) {
+        return new BaseTask<>(new RetryCallable<>(this, policy));
+    }
+
+    @Override
+    public Task<T> rateLimited(RateLimiter limiter) {
+        return new BaseTask<>(new LimitedCallable<>(callable2, limiter));
+    }
+
+    @Override
+    public Task<T> limited(ConcurrencyLimiter limiter) {
+        return new BaseTask<>(new LimitedCallable<>(callable2, limiter));
     }
 
     @Override
@@ -33,7 +123,7 @@ public class BaseTask<T> implements Task<T>, Cloneable {
         try {
             //noinspection unchecked
             task = (BaseTask<T>) super.clone();
-            task.callable2 = this.callable2;
+            task.running = null;
         } catch (Exception e) {
             e.printStackTrace();
             task = new BaseTask<>(callable2);
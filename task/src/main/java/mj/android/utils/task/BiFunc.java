@@ -0,0 +1,5 @@
+package mj.android.utils.task;
+
+public interface BiFunc<A, B, R> {
+    R func(A a, B b) throws Throwable;
+}
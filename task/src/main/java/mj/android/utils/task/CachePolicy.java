@@ -0,0 +1,28 @@
+package mj.android.utils.task;
+
+import android.support.annotation.NonNull;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Tasks#cached(String, Task, CachePolicy)} 로 캐시된 결과를 얼마나 사용할지 정한다.
+ */
+public class CachePolicy {
+    final long ttlNanos;
+    long staleNanos = 0;
+
+    /**
+     * @param ttl 결과를 다시 계산하지 않고 그대로 사용하는 시간
+     */
+    public CachePolicy(long ttl, @NonNull TimeUnit unit) {
+        this.ttlNanos = unit.toNanos(ttl);
+    }
+
+    /**
+     * ttl 이 지난 뒤에도 주어진 시간 동안은 캐시된 결과를 먼저 반환하고, 결과를 백그라운드에서 갱신한다.
+     */
+    public CachePolicy staleWhileRevalidate(long time, @NonNull TimeUnit unit) {
+        this.staleNanos = unit.toNanos(time);
+        return this;
+    }
+}
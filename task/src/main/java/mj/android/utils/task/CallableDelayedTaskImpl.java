@@ -6,14 +6,22 @@ import android.support.annotation.Nullable;
 import android.util.Log;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 class CallableDelayedTaskImpl<T> implements DelayedTask<T> {
     private AtomicBoolean isCancelled = new AtomicBoolean(false);
-    private Callable2<T> call;
+    private volatile Callable2<T> call;
+    private volatile TaskContext running;
+    private volatile Cancelable scheduled;
     private ResultListener<T> resultListener;
     private ErrorListener errorListener;
     private Runnable atLastListener;
+    private Scheduler subscribeScheduler;
+    private Scheduler observeScheduler;
+    private String tag;
 
     CallableDelayedTaskImpl(Callable2<T> callable) {
         this.call = callable;
@@ -23,10 +31,29 @@ class CallableDelayedTaskImpl<T> implements DelayedTask<T> {
         return isCancelled.get();
     }
 
+    /**
+     * 예약된 실행을 취소하고, 실행중인 작업에 취소를 전달하고 실행중인 스레드를 인터럽트한 뒤, 작업과 리스너를 놓는다.
+     * <p>
+     * 이 DelayedTask 의 실행만 취소되며, 같은 Task 로 만든 다른 실행에는 영향이 없다.
+     */
     @Override
     public boolean cancel() {
-        Tasks.sendCancelToCancelable(call);
-        return isCancelled.compareAndSet(false, true);
+        boolean cancelled = isCancelled.compareAndSet(false, true);
+        if (cancelled && Tasks.monitor() != TaskMonitor.NONE)
+            Tasks.monitor().onCancel(tag, System.nanoTime());
+
+        call = null;
+        Cancelable pending = scheduled;
+        if (pending != null)
+            pending.cancel();
+        TaskContext context = running;
+        if (context != null)
+            context.cancel();
+
+        resultListener = null;
+        errorListener = null;
+        atLastListener = null;
+        return cancelled;
     }
 
     @Override
@@ -47,91 +74,448 @@ class CallableDelayedTaskImpl<T> implements DelayedTask<T> {
         return this;
     }
 
+    @Override
+    public DelayedTask<T> tag(@Nullable String tag) {
+        this.tag = tag;
+        return this;
+    }
+
+    @Override
+    public DelayedTask<T> subscribeOn(@NonNull Scheduler scheduler) {
+        this.subscribeScheduler = scheduler;
+        return this;
+    }
+
+    @Override
+    public DelayedTask<T> observeOn(@NonNull Scheduler scheduler) {
+        this.observeScheduler = scheduler;
+        return this;
+    }
+
     @Override
     public void execute() {
-        Tasks.execute(running(resultListener, errorListener, atLastListener));
+        execute(subscribeScheduler != null ? subscribeScheduler : Schedulers.background());
     }
 
     @Override
     public void execute(@NonNull Executor executor) {
-        executor.execute(running(resultListener, errorListener, atLastListener));
+        executor.execute(newExecution(executor, 0));
+    }
+
+    @Override
+    public void executeAfter(long delay, @NonNull TimeUnit unit) {
+        Scheduler scheduler = scheduler();
+        scheduled = scheduler.schedule(newExecution(scheduler, unit.toNanos(delay)), delay, unit);
+    }
+
+    @Override
+    public void executeAtFixedRate(long initialDelay, long period, @NonNull TimeUnit unit) {
+        executePeriodic(initialDelay, period, unit, true);
+    }
+
+    @Override
+    public void executeWithFixedDelay(long initialDelay, long delay, @NonNull TimeUnit unit) {
+        executePeriodic(initialDelay, delay, unit, false);
+    }
+
+    private void executePeriodic(long initialDelay, long period, TimeUnit unit, boolean fixedRate) {
+        if (period <= 0)
+            throw new IllegalArgumentException("period <= 0");
+
+        Scheduler scheduler = scheduler();
+        Periodic periodic = new Periodic(scheduler, unit.toNanos(period), fixedRate);
+        periodic.nextAt = scheduler.now(TimeUnit.NANOSECONDS) + unit.toNanos(initialDelay);
+        scheduled = scheduler.schedule(periodic, initialDelay, unit);
+    }
+
+    private Scheduler scheduler() {
+        return subscribeScheduler != null ? subscribeScheduler : Schedulers.background();
+    }
+
+    private Execution newExecution(Executor executor, long delayNanos) {
+        Executor observer = observeScheduler != null ? observeScheduler : Schedulers.delivery();
+        Execution execution = new Execution(resultListener, errorListener, atLastListener, executor, observer);
+        if (Tasks.monitor() != TaskMonitor.NONE)
+            execution.enqueuedAt = System.nanoTime() + delayNanos;
+        return execution;
     }
 
     @Override
     public DelayedTask<T> clone() {
-        return new CallableDelayedTaskImpl<>(call);
+        CallableDelayedTaskImpl<T> task = new CallableDelayedTaskImpl<>(call);
+        task.subscribeScheduler = subscribeScheduler;
+        task.observeScheduler = observeScheduler;
+        task.tag = tag;
+        return task;
     }
 
 
-    private Runnable running(final ResultListener<T> r, final ErrorListener e, final Runnable atLast) {
-        return new Runnable() {
-            @Override
-            public void run() {
+    /**
+     * 반복 실행. 실행 마다 새 {@link Execution} 을 만들고, 재시도와 비동기 작업까지 실행이 모두 끝나면 다음 실행을 예약한다.
+     */
+    private class Periodic implements TrackedRunnable {
+        private final Scheduler scheduler;
+        private final long period;
+        private final boolean fixedRate;
+        private long nextAt;
+        private final AtomicReference<Runnable> onDone = new AtomicReference<>();
+
+        Periodic(Scheduler scheduler, long period, boolean fixedRate) {
+            this.scheduler = scheduler;
+            this.period = period;
+            this.fixedRate = fixedRate;
+        }
+
+        @Override
+        public void run() {
+            if (isCancelled()) {
+                cancel();
+                return;
+            }
+
+            Execution execution = newExecution(scheduler, 0);
+            execution.periodic = this;
+            Runnable done = onDone.getAndSet(null);
+            if (done != null)
+                execution.track(done);
+            execution.run();
+        }
+
+        /**
+         * 반복 마다 새 실행이므로 항상 콜백을 받는다.
+         */
+        @Override
+        public boolean track(Runnable onDone) {
+            this.onDone.set(onDone);
+            return true;
+        }
+
+        @Override
+        public boolean cancel() {
+            Runnable done = onDone.getAndSet(null);
+            if (done != null)
+                done.run();
+            return true;
+        }
+
+        /**
+         * 이번 실행에만 reason 을 전달하고, 다음 실행은 그대로 예약한다.
+         */
+        @Override
+        public void reject(Throwable reason) {
+            Execution execution = newExecution(scheduler, 0);
+            Runnable done = onDone.getAndSet(null);
+            if (done != null)
+                execution.track(done);
+            execution.reject(reason);
+            next();
+        }
+
+        void next() {
+            if (isCancelled())
+                return;
+
+            long now = scheduler.now(TimeUnit.NANOSECONDS);
+            long delay;
+            if (fixedRate) {
+                nextAt += period;
+                delay = Math.max(0, nextAt - now);
+            } else {
+                delay = period;
+            }
+            scheduled = scheduler.schedule(this, delay, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 한 번의 실행. {@link RetryCallable} 이 실패하면 결과를 전달하지 않고, 같은 Executor 에 다음 실행을 예약한다.
+     * map 으로 감싼 RetryCallable 도 같으며, map 단계의 실패는 다시 실행하지 않는다.
+     * {@link LimitedCallable} 이 허가를 바로 받지 못하면 스레드를 놓고, 허가를 받은 뒤 같은 Executor 에서 다시 실행된다.
+     * {@link AsyncBridge} 는 map, timeout 등으로 감싸져 있어도 작업을 시작한 뒤 스레드를 놓고,
+     * {@link Completion} 으로 끝나면 {@link AsyncChain} 이 남은 단계를 적용하여 결과를 전달한다.
+     * <p>
+     * Executor 가 실행하지 않고 버리는 경우에는 {@link #cancel()} 이나 {@link #reject(Throwable)} 을 호출하여
+     * 넘겨받은 허가를 반납하도록 해야 한다. 재시도나 허가를 기다린 뒤 다시 실행될 때는 같은 Executor 에 다시 요청된다.
+     */
+    private class Execution implements TrackedRunnable {
+        private final ResultListener<T> r;
+        private final ErrorListener e;
+        private final Runnable atLast;
+        private final Executor executor;
+        private final Executor observer;
+        private int attempt = 0;
+        private long enqueuedAt;
+        private volatile Limiter held;
+        private long parkedAt;
+        private Periodic periodic;
+        /**
+         * 이번 실행에서 실패한 RetryCallable. 실행하는 스레드에서만 사용된다.
+         */
+        private RetryCallable<?> retrying;
+        private final AtomicReference<Runnable> onDone = new AtomicReference<>();
+
+        Execution(ResultListener<T> r, ErrorListener e, Runnable atLast, Executor executor, Executor observer) {
+            this.r = r;
+            this.e = e;
+            this.atLast = atLast;
+            this.executor = executor;
+            this.observer = observer;
+        }
+
+        @Override
+        public void run() {
+            Callable2<T> c = call;
+            if (c == null || isCancelled()) {
+                release();
+                finished();
+                return;
+            }
+            Limiter limiter = LimitedCallable.limiterOf(c);
+            if (limiter != null && held == null && !acquire(limiter))
+                return;
+
+            attempt++;
+            final TaskMonitor monitor = Tasks.monitor();
+            final boolean traced = monitor != TaskMonitor.NONE;
+            long startedAt = 0;
+            if (traced) {
+                startedAt = System.nanoTime();
+                monitor.onStart(tag, enqueuedAt != 0 ? enqueuedAt : startedAt, startedAt);
+                if (parkedAt != 0)
+                    monitor.onThrottle(tag, parkedAt, startedAt);
+            }
+
+            Object[] layers = AsyncChain.layersOf(c, held);
+            if (layers != null) {
+                runAsync(c, layers, monitor, startedAt);
+                return;
+            }
+
+            Delivery<T> delivery = Delivery.obtain(r, e, atLast);
+
+            TaskContext context = TaskContext.fork();
+            InterruptGuard guard = new InterruptGuard();
+            guard.enter();
+            context.register(guard);
+            context.permit = held;
+            running = context;
+            TaskContext prev = TaskContext.enter(context);
+            try {
                 if (isCancelled())
                     return;
-                try {
-                    final T t = call.call();
 
-                    if (isCancelled())
-                        return;
+                RetryCallable<?> retry = RetryCallable.of(c);
+                final T t = retry != null ? attempt(c, retry) : TaskContext.call(c);
 
-                    notifyResult(t, r);
-                } catch (Throwable throwable) {
-                    throwable.printStackTrace();
+                if (traced) {
+                    long endedAt = System.nanoTime();
+                    monitor.onEnd(tag, startedAt, endedAt);
+                    delivery.trace(tag, endedAt);
+                }
 
-                    if (isCancelled())
-                        return;
+                if (!isCancelled()) {
+                    if (r == null)
+                        Log.w("CallableDelayedTask", "ResultListener == null");
+                    delivery.result(t);
+                }
+            } catch (Throwable throwable) {
+                if (traced) {
+                    long endedAt = System.nanoTime();
+                    monitor.onError(tag, startedAt, endedAt, throwable);
+                    delivery.trace(tag, endedAt);
+                }
 
-                    notifyError(throwable, e);
-                } finally {
-                    notifyAtLast(atLast);
+                RetryCallable<?> failed = retrying;
+                retrying = null;
+                if (failed != null && !isCancelled() && retryLater(failed, throwable)) {
+                    delivery.recycle();
+                    delivery = null;
+                    return;
                 }
 
+                throwable.printStackTrace();
+
+                if (!isCancelled()) {
+                    if (e == null)
+                        Log.w("CallableDelayedTask", "ErrorListener == null");
+                    delivery.error(throwable);
+                }
+            } finally {
+                TaskContext.restore(prev);
+                running = null;
+                context.close();
+                guard.exit();
+                release();
+                if (delivery != null) {
+                    delivery.post(observer);
+                    if (periodic != null)
+                        periodic.next();
+                    finished();
+                }
             }
-        };
-    }
+        }
+
+        /**
+         * 재시도하는 작업을 한 번 실행하고 map 단계를 적용한다. 작업이 실패하면 {@link #retrying} 을 설정한다.
+         */
+        private T attempt(Callable2<T> c, RetryCallable<?> retry) throws Throwable {
+            Object value;
+            try {
+                value = retry.attempt();
+            } catch (Throwable t) {
+                retrying = retry;
+                throw t;
+            }
+            //noinspection unchecked
+            return c == retry ? (T) value : (T) ((MapPipeline<T>) c).apply(value);
+        }
 
-    private static <T> void notifyResult(final T t, final ResultListener<T> r) {
-        if (r == null) {
-            Log.w("CallableDelayedTask", "ResultListener == null");
-            return;
+        /**
+         * 작업을 시작만 하고 스레드를 놓는다. 결과는 작업을 끝낸 스레드에서 전달한다.
+         */
+        private void runAsync(final Callable2<T> c, Object[] layers, final TaskMonitor monitor, final long startedAt) {
+            final TaskContext context = TaskContext.fork();
+            running = context;
+            new AsyncChain<T>(layers) {
+                @Override
+                void onDone(T result, Throwable error) {
+                    finishAsync(c, context, monitor, startedAt, result, error);
+                }
+            }.start(context);
         }
-        runOnUiThread(new Runnable() {
-            @Override
-            public void run() {
-                if (r != null) r.onResult(t);
+
+        private void finishAsync(Callable2<T> c, TaskContext context, TaskMonitor monitor, long startedAt, T result, Throwable error) {
+            Delivery<T> delivery = Delivery.obtain(r, e, atLast);
+            if (monitor != TaskMonitor.NONE) {
+                long endedAt = System.nanoTime();
+                if (error == null)
+                    monitor.onEnd(tag, startedAt, endedAt);
+                else
+                    monitor.onError(tag, startedAt, endedAt, error);
+                delivery.trace(tag, endedAt);
+            }
+
+            if (running == context)
+                running = null;
+            context.close();
+            release();
+
+            if (error != null && c instanceof RetryCallable && !isCancelled() && retryLater((RetryCallable<?>) c, error)) {
+                delivery.recycle();
+                return;
+            }
+
+            if (!isCancelled()) {
+                if (error == null) {
+                    delivery.result(result);
+                } else {
+                    error.printStackTrace();
+                    delivery.error(error);
+                }
             }
-        });
-    }
 
-    private static void notifyError(final Throwable t, final ErrorListener e) {
-        if (e == null) {
-            Log.w("CallableDelayedTask", "ErrorListener == null");
-            return;
+            delivery.post(observer);
+            if (periodic != null)
+                periodic.next();
+            finished();
         }
-        runOnUiThread(new Runnable() {
-            @Override
-            public void run() {
-                if (e != null) e.onError(t);
+
+        /**
+         * @return 허가를 받았으면 true. 받지 못했으면 허가를 받은 뒤 다시 실행되도록 하고 false
+         */
+        private boolean acquire(final Limiter limiter) {
+            parkedAt = System.nanoTime();
+            long wait = limiter.acquire(new Runnable() {
+                @Override
+                public void run() {
+                    held = limiter;
+                    try {
+                        executor.execute(Execution.this);
+                    } catch (RejectedExecutionException rejected) {
+                        rejected.printStackTrace();
+                        reject(rejected);
+                    }
+                }
+            });
+
+            if (wait == 0) {
+                parkedAt = 0;
+                held = limiter;
+                return true;
             }
-        });
-    }
+            if (wait > 0) {
+                held = limiter;
+                Schedulers.from(executor).schedule(this, wait, TimeUnit.NANOSECONDS);
+            }
+            return false;
+        }
 
-    private static void notifyAtLast(final Runnable r) {
-        if (r == null) {
-            Log.w("CallableDelayedTask", "AtLastRunner == null");
-            return;
+        @Override
+        public boolean track(Runnable onDone) {
+            return this.onDone.compareAndSet(null, onDone);
         }
-        runOnUiThread(new Runnable() {
-            @Override
-            public void run() {
-                if (r != null) r.run();
+
+        /**
+         * 실행되지 못하고 버려질 때 호출된다. 넘겨받은 허가가 있으면 반납한다.
+         */
+        @Override
+        public boolean cancel() {
+            release();
+            finished();
+            return true;
+        }
+
+        /**
+         * 실행되지 못하고 버려졌음을 {@link TaskMonitor} 에는 실행 시간이 0 인 에러로 알린다.
+         */
+        @Override
+        public void reject(Throwable reason) {
+            release();
+            if (!isCancelled()) {
+                Delivery<T> delivery = Delivery.obtain(r, e, atLast);
+                TaskMonitor monitor = Tasks.monitor();
+                if (monitor != TaskMonitor.NONE) {
+                    long droppedAt = System.nanoTime();
+                    monitor.onError(tag, droppedAt, droppedAt, reason);
+                    delivery.trace(tag, droppedAt);
+                }
+                delivery.error(reason);
+                delivery.post(observer);
             }
-        });
-    }
+            finished();
+        }
+
+        /**
+         * 실행이 끝났음을 {@link #track(Runnable)} 으로 지정한 콜백에 알린다.
+         */
+        private void finished() {
+            Runnable done = onDone.getAndSet(null);
+            if (done != null)
+                done.run();
+        }
+
+        private void release() {
+            Limiter l = held;
+            if (l != null) {
+                held = null;
+                l.release();
+            }
+        }
+
+        private boolean retryLater(RetryCallable<?> c, Throwable throwable) {
+            long delay = c.policy.nextDelayNanos(throwable, attempt, Long.MAX_VALUE);
+            if (delay < 0)
+                return false;
 
-    private static void runOnUiThread(Runnable r) {
-        Tasks.UI_THREAD_EXECUTOR.execute(r);
+            TaskMonitor monitor = Tasks.monitor();
+            if (monitor != TaskMonitor.NONE) {
+                monitor.onRetry(tag, attempt, delay);
+                enqueuedAt = System.nanoTime() + delay;
+            }
+
+            Schedulers.from(executor).schedule(this, delay, TimeUnit.NANOSECONDS);
+            return true;
+        }
     }
 
 }
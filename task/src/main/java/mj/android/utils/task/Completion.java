@@ -0,0 +1,25 @@
+package mj.android.utils.task;
+
+import android.support.annotation.NonNull;
+
+/**
+ * {@link AsyncCallable} 이 작업을 끝낼 때 사용한다. 어느 스레드에서든 호출할 수 있으며, 처음 한 번의 완료만 반영된다.
+ */
+public interface Completion<T> {
+    /**
+     * @return 이미 끝났거나 취소되었다면 false
+     */
+    boolean complete(T result);
+
+    /**
+     * @return 이미 끝났거나 취소되었다면 false
+     */
+    boolean fail(@NonNull Throwable t);
+
+    /**
+     * 실행이 취소되면 c 를 취소한다. 이미 취소되었다면 바로 취소한다. 진행중인 요청을 멈추는 데 사용한다.
+     */
+    void onCancel(@NonNull Cancelable c);
+
+    boolean isCancelled();
+}
@@ -0,0 +1,135 @@
+package mj.android.utils.task;
+
+import android.support.annotation.NonNull;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 동시에 실행되는 작업의 수를 제한한다. {@link Task#limited(ConcurrencyLimiter)} 로 사용한다.
+ * <p>
+ * {@link #named(String, int)} 로 얻은 limiter 는 이름이 같으면 어느 TaskQueue 에서 사용하든 공유된다.
+ * 허가를 기다리는 작업은 스레드에서 기다리든 스레드를 놓고 기다리든 하나의 대기열에서 요청한 순서대로 허가를 넘겨받는다.
+ */
+public class ConcurrencyLimiter extends Limiter {
+    private static final ConcurrentHashMap<String, ConcurrencyLimiter> LIMITERS = new ConcurrentHashMap<>();
+
+    private final int maxConcurrency;
+    private final ArrayDeque<Runnable> waiters = new ArrayDeque<>();
+    private int running = 0;
+
+    public ConcurrencyLimiter(int maxConcurrency) {
+        if (maxConcurrency < 1)
+            throw new IllegalArgumentException("maxConcurrency < 1");
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    /**
+     * 이름으로 공유되는 limiter 를 반환한다. 처음 요청될 때 maxConcurrency 로 만들어지며, 이후에는 maxConcurrency 를 무시한다.
+     */
+    public static ConcurrencyLimiter named(@NonNull String name, int maxConcurrency) {
+        ConcurrencyLimiter limiter = LIMITERS.get(name);
+        if (limiter == null) {
+            ConcurrencyLimiter created = new ConcurrencyLimiter(maxConcurrency);
+            limiter = LIMITERS.putIfAbsent(name, created);
+            if (limiter == null)
+                limiter = created;
+        }
+        return limiter;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public synchronized int getRunning() {
+        return running;
+    }
+
+    public synchronized int getWaiting() {
+        return waiters.size();
+    }
+
+    @Override
+    synchronized long acquire(Runnable waiter) {
+        if (running < maxConcurrency) {
+            running++;
+            return 0;
+        }
+        waiters.add(waiter);
+        return -1;
+    }
+
+    @Override
+    void acquireBlocking() throws InterruptedException, TimeoutException {
+        Grant grant = new Grant();
+        if (acquire(grant) == 0)
+            return;
+
+        boolean granted = false;
+        try {
+            granted = grant.await(TaskContext.remainingNanos());
+        } finally {
+            if (!granted) {
+                boolean removed;
+                synchronized (this) {
+                    removed = waiters.remove(grant);
+                }
+                // 대기열에서 빠지기 전에 허가를 넘겨받았다면 다음 작업에 넘겨준다.
+                if (!removed)
+                    release();
+            }
+        }
+        if (!granted)
+            throw new TimeoutException("deadline exceeded");
+    }
+
+    /**
+     * 기다리는 작업이 있으면 허가를 그대로 넘겨준다.
+     */
+    @Override
+    void release() {
+        Runnable next;
+        synchronized (this) {
+            next = waiters.poll();
+            if (next == null)
+                running--;
+        }
+        if (next != null)
+            next.run();
+    }
+
+    /**
+     * 현재 스레드에서 허가를 기다리는 waiter. 허가를 넘겨받으면 기다리는 스레드를 깨운다.
+     */
+    private static final class Grant implements Runnable {
+        private boolean granted = false;
+
+        @Override
+        public synchronized void run() {
+            granted = true;
+            notifyAll();
+        }
+
+        /**
+         * @param timeoutNanos {@link Long#MAX_VALUE} 이면 허가를 받을 때 까지 기다린다.
+         * @return 허가를 넘겨받았으면 true, 시간이 지났으면 false
+         */
+        synchronized boolean await(long timeoutNanos) throws InterruptedException {
+            long deadline = System.nanoTime() + timeoutNanos;
+            while (!granted) {
+                if (timeoutNanos == Long.MAX_VALUE) {
+                    wait();
+                } else {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0)
+                        return false;
+                    TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 public interface DelayedTask<T> extends Cancelable {
     DelayedTask<T> result(@Nullable ResultListener<T> r);
@@ -13,10 +14,42 @@ public interface DelayedTask<T> extends Cancelable {
 
     DelayedTask<T> atLast(@Nullable Runnable r);
 
+    /**
+     * {@link TaskMonitor} 에 보고할 때 사용할 이름을 지정한다.
+     */
+    DelayedTask<T> tag(@Nullable String tag);
+
+    /**
+     * {@link #execute()} 로 실행할 때 작업을 실행할 Scheduler 를 지정한다. 기본값은 {@link Schedulers#background()} 이다.
+     */
+    DelayedTask<T> subscribeOn(@NonNull Scheduler scheduler);
+
+    /**
+     * 결과를 전달할 Scheduler 를 지정한다. 기본값은 {@link Schedulers#delivery()} 이다.
+     */
+    DelayedTask<T> observeOn(@NonNull Scheduler scheduler);
+
     DelayedTask<T> clone();
 
     void execute();
 
     void execute(@NonNull Executor executor);
 
+    /**
+     * delay 뒤에 {@link #subscribeOn(Scheduler)} 로 지정한 Scheduler 에서 실행한다. {@link #cancel()} 하면 예약이 취소된다.
+     */
+    void executeAfter(long delay, @NonNull TimeUnit unit);
+
+    /**
+     * initialDelay 뒤에 처음 실행하고, 이후 period 간격으로 실행을 시작한다.
+     * 결과는 실행 마다 전달되며, {@link #cancel()} 할 때까지 반복한다.
+     * 실행이 period 보다 오래 걸리면 다음 실행은 끝나자마자 시작하고, 실행이 겹치지는 않는다.
+     */
+    void executeAtFixedRate(long initialDelay, long period, @NonNull TimeUnit unit);
+
+    /**
+     * initialDelay 뒤에 처음 실행하고, 이후 실행이 끝날 때마다 delay 뒤에 다시 실행한다.
+     * 결과는 실행 마다 전달되며, {@link #cancel()} 할 때까지 반복한다.
+     */
+    void executeWithFixedDelay(long initialDelay, long delay, @NonNull TimeUnit unit);
 }
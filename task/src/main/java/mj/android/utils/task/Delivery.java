@@ -0,0 +1,204 @@
+package mj.android.utils.task;
+
+import java.util.concurrent.Executor;
+
+/**
+ * 작업 결과를 리스너가 있는 스레드로 전달하는 메시지.
+ * <p>
+ * 작업 하나당 결과(또는 에러)와 atLast 를 한 번에 전달하며, {@link android.os.Message} 처럼 재사용된다.
+ */
+final class Delivery<T> implements Runnable {
+    private static final int MAX_POOL_SIZE = 32;
+
+    private static final Object POOL_LOCK = new Object();
+    private static Delivery<?> pool;
+    private static int poolSize = 0;
+
+    private static final Object BATCH_LOCK = new Object();
+    private static Delivery<?> batchHead, batchTail;
+    private static boolean batchPosted = false;
+    private static volatile boolean batchEnabled = false;
+
+    private static final Runnable DRAIN = new Runnable() {
+        @Override
+        public void run() {
+            drain();
+        }
+    };
+
+    private ResultListener<T> resultListener;
+    private ErrorListener errorListener;
+    private Runnable atLast;
+    private T result;
+    private Throwable error;
+    private boolean hasResult;
+    private String tag;
+    private long completedAt;
+    private boolean traced;
+    private Delivery<?> next;
+
+    private Delivery() {
+    }
+
+    static <T> Delivery<T> obtain(ResultListener<T> r, ErrorListener e, Runnable atLast) {
+        Delivery<?> d = null;
+        synchronized (POOL_LOCK) {
+            if (pool != null) {
+                d = pool;
+                pool = d.next;
+                d.next = null;
+                poolSize--;
+            }
+        }
+
+        //noinspection unchecked
+        Delivery<T> delivery = d == null ? new Delivery<T>() : (Delivery<T>) d;
+        delivery.resultListener = r;
+        delivery.errorListener = e;
+        delivery.atLast = atLast;
+        return delivery;
+    }
+
+    /**
+     * 같은 UI 스레드 턴에 도착한 결과들을 하나의 Handler 메시지로 묶어 전달할지 여부를 설정한다.
+     */
+    static void setBatchEnabled(boolean enabled) {
+        batchEnabled = enabled;
+    }
+
+    Delivery<T> result(T t) {
+        this.result = t;
+        this.hasResult = true;
+        return this;
+    }
+
+    Delivery<T> error(Throwable t) {
+        this.error = t;
+        return this;
+    }
+
+    /**
+     * 리스너에 전달될 때 {@link TaskMonitor#onDeliver(String, long, long)} 를 보고한다.
+     */
+    Delivery<T> trace(String tag, long completedAt) {
+        this.tag = tag;
+        this.completedAt = completedAt;
+        this.traced = true;
+        return this;
+    }
+
+    /**
+     * 전달할 리스너가 없으면 메시지를 보내지 않고 바로 반환한다.
+     */
+    void post(Executor executor) {
+        boolean empty = atLast == null
+                && (hasResult ? resultListener == null : (error == null || errorListener == null));
+        if (empty) {
+            recycle();
+            return;
+        }
+
+        if (batchEnabled && executor == Schedulers.mainThread()) {
+            boolean post;
+            synchronized (BATCH_LOCK) {
+                if (batchTail == null) {
+                    batchHead = batchTail = this;
+                } else {
+                    batchTail.next = this;
+                    batchTail = this;
+                }
+                post = !batchPosted;
+                batchPosted = true;
+            }
+            if (post)
+                executor.execute(DRAIN);
+        } else {
+            executor.execute(this);
+        }
+    }
+
+    @Override
+    public void run() {
+        if (traced)
+            Tasks.monitor().onDeliver(tag, completedAt, System.nanoTime());
+
+        try {
+            if (hasResult) {
+                if (resultListener != null) resultListener.onResult(result);
+            } else if (error != null) {
+                if (errorListener != null) errorListener.onError(error);
+            }
+        } finally {
+            try {
+                if (atLast != null) atLast.run();
+            } finally {
+                recycle();
+            }
+        }
+    }
+
+    void recycle() {
+        resultListener = null;
+        errorListener = null;
+        atLast = null;
+        result = null;
+        error = null;
+        hasResult = false;
+        tag = null;
+        traced = false;
+
+        synchronized (POOL_LOCK) {
+            if (poolSize < MAX_POOL_SIZE) {
+                next = pool;
+                pool = this;
+                poolSize++;
+            }
+        }
+    }
+
+    /**
+     * 묶인 메시지를 차례로 전달한다. 리스너가 예외를 던지면 남은 메시지를 다시 묶어 다음 턴에 전달한 뒤 예외를 던진다.
+     */
+    private static void drain() {
+        Delivery<?> d;
+        synchronized (BATCH_LOCK) {
+            d = batchHead;
+            batchHead = batchTail = null;
+            batchPosted = false;
+        }
+
+        try {
+            while (d != null) {
+                Delivery<?> current = d;
+                d = current.next;
+                current.next = null;
+                current.run();
+            }
+        } finally {
+            if (d != null)
+                requeue(d);
+        }
+    }
+
+    /**
+     * 전달하지 못한 메시지들을 묶음의 앞에 다시 넣는다.
+     */
+    private static void requeue(Delivery<?> head) {
+        Delivery<?> tail = head;
+        while (tail.next != null) {
+            tail = tail.next;
+        }
+
+        boolean post;
+        synchronized (BATCH_LOCK) {
+            tail.next = batchHead;
+            batchHead = head;
+            if (batchTail == null)
+                batchTail = tail;
+            post = !batchPosted;
+            batchPosted = true;
+        }
+        if (post)
+            Schedulers.mainThread().execute(DRAIN);
+    }
+}
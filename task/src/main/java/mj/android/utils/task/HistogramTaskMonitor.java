@@ -0,0 +1,134 @@
+package mj.android.utils.task;
+
+import android.support.annotation.Nullable;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * tag 별로 대기 시간, 실행 시간, 허가 대기 시간, 전달 지연 시간의 분포와 결과별 횟수를 메모리에 모은다.
+ * <p>
+ * tag 가 없는 작업은 빈 문자열 tag 로 모인다.
+ */
+public class HistogramTaskMonitor extends TaskMonitor {
+    private final ConcurrentHashMap<String, Stats> stats = new ConcurrentHashMap<>();
+
+    public static class Stats {
+        private final LatencyHistogram waitTime = new LatencyHistogram();
+        private final LatencyHistogram runTime = new LatencyHistogram();
+        private final LatencyHistogram deliveryLatency = new LatencyHistogram();
+        private final LatencyHistogram throttleTime = new LatencyHistogram();
+        private final AtomicLong errorCount = new AtomicLong();
+        private final AtomicLong cancelCount = new AtomicLong();
+        private final AtomicLong retryCount = new AtomicLong();
+
+        /**
+         * 실행이 요청된 때부터 시작될 때 까지의 시간
+         */
+        public LatencyHistogram getWaitTime() {
+            return waitTime;
+        }
+
+        /**
+         * 작업이 실행된 시간. 에러로 끝난 경우도 포함한다.
+         */
+        public LatencyHistogram getRunTime() {
+            return runTime;
+        }
+
+        /**
+         * 작업이 끝난 때부터 리스너에 전달될 때 까지의 시간
+         */
+        public LatencyHistogram getDeliveryLatency() {
+            return deliveryLatency;
+        }
+
+        /**
+         * limiter 의 허가를 기다린 시간. 기다리지 않고 허가를 받은 경우는 기록되지 않는다.
+         */
+        public LatencyHistogram getThrottleTime() {
+            return throttleTime;
+        }
+
+        public long getErrorCount() {
+            return errorCount.get();
+        }
+
+        public long getCancelCount() {
+            return cancelCount.get();
+        }
+
+        public long getRetryCount() {
+            return retryCount.get();
+        }
+    }
+
+    public Set<String> getTags() {
+        return Collections.unmodifiableSet(stats.keySet());
+    }
+
+    /**
+     * @return 기록된 적이 없는 tag 이면 null
+     */
+    @Nullable
+    public Stats getStats(@Nullable String tag) {
+        return stats.get(tag == null ? "" : tag);
+    }
+
+    public void reset() {
+        stats.clear();
+    }
+
+    private Stats statsOf(String tag) {
+        if (tag == null)
+            tag = "";
+
+        Stats s = stats.get(tag);
+        if (s == null) {
+            Stats created = new Stats();
+            s = stats.putIfAbsent(tag, created);
+            if (s == null)
+                s = created;
+        }
+        return s;
+    }
+
+    @Override
+    public void onStart(String tag, long enqueuedAt, long startedAt) {
+        statsOf(tag).waitTime.record(startedAt - enqueuedAt);
+    }
+
+    @Override
+    public void onEnd(String tag, long startedAt, long endedAt) {
+        statsOf(tag).runTime.record(endedAt - startedAt);
+    }
+
+    @Override
+    public void onError(String tag, long startedAt, long endedAt, Throwable t) {
+        Stats s = statsOf(tag);
+        s.runTime.record(endedAt - startedAt);
+        s.errorCount.incrementAndGet();
+    }
+
+    @Override
+    public void onCancel(String tag, long cancelledAt) {
+        statsOf(tag).cancelCount.incrementAndGet();
+    }
+
+    @Override
+    public void onRetry(String tag, int attempt, long delayNanos) {
+        statsOf(tag).retryCount.incrementAndGet();
+    }
+
+    @Override
+    public void onThrottle(String tag, long parkedAt, long acquiredAt) {
+        statsOf(tag).throttleTime.record(acquiredAt - parkedAt);
+    }
+
+    @Override
+    public void onDeliver(String tag, long completedAt, long deliveredAt) {
+        statsOf(tag).deliveryLatency.record(deliveredAt - completedAt);
+    }
+}
@@ -13,10 +13,15 @@ class InternalAsyncTask<T> extends AsyncTask<Void, Integer, T> {
     private static final String TAG = "InternalAsyncTask";
 
     Callable2<T> callable;
+    private volatile TaskContext context;
     private Throwable mOccurredException;
     private ResultListener<T> resultListener;
     private ErrorListener errorListener;
     private Runnable postRunnable;
+    private Runnable cancelRunnable;
+    private String tag;
+    private long enqueuedAt, completedAt;
+    private boolean traced, traceDelivery;
 
     InternalAsyncTask() {
     }
@@ -45,16 +50,85 @@ class InternalAsyncTask<T> extends AsyncTask<Void, Integer, T> {
         return this;
     }
 
+    /**
+     * 취소되어 onPostExecute 가 호출되지 않을 때 대신 UI 스레드에서 호출된다.
+     */
+    InternalAsyncTask<T> cancelRunnable(@Nullable Runnable runnable) {
+        this.cancelRunnable = runnable;
+        return this;
+    }
+
+    /**
+     * 실행 과정을 {@link TaskMonitor} 에 보고한다.
+     *
+     * @param delivery true 이면 onPostExecute 에서 전달 시점도 보고한다.
+     */
+    InternalAsyncTask<T> trace(String tag, long enqueuedAt, boolean delivery) {
+        this.tag = tag;
+        this.enqueuedAt = enqueuedAt;
+        this.traced = true;
+        this.traceDelivery = delivery;
+        return this;
+    }
+
+    /**
+     * onPostExecute 이후 결과를 다시 전달하는 경우, 전달 시점은 그 Delivery 에서 보고한다.
+     */
+    void traceDelivery(Delivery<T> delivery) {
+        if (traced)
+            delivery.trace(tag, completedAt);
+    }
+
+    /**
+     * 실행중인 작업에 취소를 전달한다.
+     */
+    void cancelRun() {
+        TaskContext c = context;
+        if (c != null)
+            c.cancel();
+    }
+
     @Override
     protected T doInBackground(Void... params) {
         if (callable == null || isCancelled()) {
             callable = null;
             return null;
         }
+
+        final TaskContext c = TaskContext.fork();
+        context = c;
+        TaskContext prev = TaskContext.enter(c);
         try {
-            T t = callable.call();
+            return doCall();
+        } finally {
+            TaskContext.restore(prev);
+            context = null;
+            c.close();
+        }
+    }
+
+    private T doCall() {
+        if (isCancelled())
+            return null;
+
+        final TaskMonitor monitor = Tasks.monitor();
+        long startedAt = 0;
+        if (traced) {
+            startedAt = System.nanoTime();
+            monitor.onStart(tag, enqueuedAt, startedAt);
+        }
+        try {
+            T t = TaskContext.call(callable);
+            if (traced) {
+                completedAt = System.nanoTime();
+                monitor.onEnd(tag, startedAt, completedAt);
+            }
             return isCancelled() ? null : t;
         } catch (Throwable e) {
+            if (traced) {
+                completedAt = System.nanoTime();
+                monitor.onError(tag, startedAt, completedAt, e);
+            }
             setException(e);
             return null;
         } finally {
@@ -64,6 +138,9 @@ class InternalAsyncTask<T> extends AsyncTask<Void, Integer, T> {
 
     @Override
     protected void onPostExecute(T result) {
+        if (traced && traceDelivery && !isCancelled())
+            Tasks.monitor().onDeliver(tag, completedAt, System.nanoTime());
+
         try {
             if (isCancelled())
                 return;
@@ -84,6 +161,10 @@ class InternalAsyncTask<T> extends AsyncTask<Void, Integer, T> {
     @Override
     protected void onCancelled(T result) {
         setException(new CancellationException("Canceled."));
+        if (cancelRunnable != null) {
+            cancelRunnable.run();
+            cancelRunnable = null;
+        }
     }
 
     protected void setException(Throwable e) {
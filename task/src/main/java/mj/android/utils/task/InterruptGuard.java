@@ -0,0 +1,47 @@
+package mj.android.utils.task;
+
+/**
+ * 작업을 실행중인 스레드를 기록해 두었다가, 작업이 끝나기 전에만 인터럽트한다.
+ * <p>
+ * 작업이 끝난 뒤 풀 스레드가 다른 작업을 실행하는 중에 인터럽트되지 않도록 한다.
+ */
+final class InterruptGuard implements Cancelable {
+    private Thread thread;
+    private boolean interrupted;
+
+    synchronized void enter() {
+        thread = Thread.currentThread();
+        interrupted = false;
+    }
+
+    /**
+     * @return 실행 중에 {@link #interrupt()} 되었는지 여부
+     */
+    boolean exit() {
+        boolean i;
+        synchronized (this) {
+            thread = null;
+            i = interrupted;
+        }
+        if (i)
+            //noinspection ResultOfMethodCallIgnored
+            Thread.interrupted();
+        return i;
+    }
+
+    synchronized boolean interrupt() {
+        if (thread == null)
+            return false;
+        interrupted = true;
+        thread.interrupt();
+        return true;
+    }
+
+    /**
+     * {@link TaskContext} 에 등록되어, 실행이 취소되면 스레드를 인터럽트한다.
+     */
+    @Override
+    public boolean cancel() {
+        return interrupt();
+    }
+}
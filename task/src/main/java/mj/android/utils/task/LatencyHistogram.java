@@ -0,0 +1,98 @@
+package mj.android.utils.task;
+
+import android.support.annotation.NonNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 나노초 단위의 값을 로그-선형 구간에 세는 히스토그램.
+ * <p>
+ * 2 의 거듭제곱 구간을 다시 16 개로 나누므로, 백분위 값의 상대 오차는 1/16 이하이다. 기록할 때 메모리를 할당하지 않는다.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = SUB_BUCKETS * (64 - SUB_BUCKET_BITS);
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos) {
+        if (nanos < 0)
+            nanos = 0;
+
+        counts.incrementAndGet(indexOf(nanos));
+        count.incrementAndGet();
+        sum.addAndGet(nanos);
+
+        long m;
+        while (nanos > (m = max.get())) {
+            if (max.compareAndSet(m, nanos))
+                break;
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMax(@NonNull TimeUnit unit) {
+        return unit.convert(max.get(), TimeUnit.NANOSECONDS);
+    }
+
+    public long getMean(@NonNull TimeUnit unit) {
+        long c = count.get();
+        return c == 0 ? 0 : unit.convert(sum.get() / c, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 기록된 값 중 percentile(0 ~ 100) 에 해당하는 값. 값이 속한 구간의 상한을 반환한다.
+     */
+    public long getValueAtPercentile(double percentile, @NonNull TimeUnit unit) {
+        long total = count.get();
+        if (total == 0)
+            return 0;
+
+        long target = Math.max(1, (long) Math.ceil(total * Math.min(100, Math.max(0, percentile)) / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= target)
+                return unit.convert(Math.min(upperBoundOf(i), max.get()), TimeUnit.NANOSECONDS);
+        }
+        return unit.convert(max.get(), TimeUnit.NANOSECONDS);
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    /**
+     * 2 * SUB_BUCKETS 보다 작은 값은 그대로, 그 이상은 상위 SUB_BUCKET_BITS + 1 비트로 구간을 정한다.
+     */
+    static int indexOf(long value) {
+        if (value < 2 * SUB_BUCKETS)
+            return (int) value;
+
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+        return SUB_BUCKETS * shift + (int) (value >>> shift);
+    }
+
+    static long upperBoundOf(int index) {
+        if (index < 2 * SUB_BUCKETS)
+            return index;
+
+        int shift = index / SUB_BUCKETS - 1;
+        long top = index - SUB_BUCKETS * shift;
+        return ((top + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,42 @@
+package mj.android.utils.task;
+
+/**
+ * {@link Limiter} 의 허가를 받아 작업을 실행한다.
+ * <p>
+ * {@link #call()} 은 허가를 받을 때 까지 호출한 스레드에서 기다린다.
+ * DelayedTask 로 실행될 때는 {@link CallableDelayedTaskImpl} 이 스레드를 점유하지 않고 허가를 기다린 뒤,
+ * 받은 허가를 {@link TaskContext} 에 넘겨 실행한다.
+ */
+class LimitedCallable<T> implements Callable2<T> {
+    final Limiter limiter;
+    final Callable2<T> callable;
+
+    LimitedCallable(Callable2<T> callable, Limiter limiter) {
+        this.callable = callable;
+        this.limiter = limiter;
+    }
+
+    /**
+     * 작업이 처음 실행하는 limiter. map 으로 이어진 작업이면 원래 작업의 것을 찾는다.
+     *
+     * @return 없으면 null
+     */
+    static Limiter limiterOf(Callable2<?> c) {
+        if (c instanceof MapPipeline)
+            c = ((MapPipeline<?>) c).source();
+        return c instanceof LimitedCallable ? ((LimitedCallable<?>) c).limiter : null;
+    }
+
+    @Override
+    public T call() throws Throwable {
+        if (TaskContext.takePermit(limiter))
+            return TaskContext.call(callable);
+
+        limiter.acquireBlocking();
+        try {
+            return TaskContext.call(callable);
+        } finally {
+            limiter.release();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package mj.android.utils.task;
+
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 작업이 실행되기 전에 받아야 하는 허가를 관리한다. {@link LimitedCallable} 이 사용한다.
+ */
+abstract class Limiter {
+    /**
+     * 허가를 요청한다.
+     *
+     * @param waiter 바로 허가를 받을 수 없을 때 등록되며, 허가가 넘겨지면 넘겨준 스레드에서 호출된다.
+     * @return 허가를 받았으면 0, 기다린 뒤에 사용할 허가가 예약되었으면 기다릴 시간(ns), waiter 가 등록되었으면 -1
+     */
+    abstract long acquire(Runnable waiter);
+
+    /**
+     * 허가를 받을 때 까지 현재 스레드에서 기다린다.
+     *
+     * @throws TimeoutException 현재 실행의 deadline 까지 허가를 받지 못한 경우
+     */
+    abstract void acquireBlocking() throws InterruptedException, TimeoutException;
+
+    /**
+     * 작업이 끝나 허가를 반납한다.
+     */
+    void release() {
+    }
+}
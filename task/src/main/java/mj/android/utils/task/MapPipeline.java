@@ -0,0 +1,111 @@
+package mj.android.utils.task;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 이어진 {@link Task#map(Func)} 를 하나로 합친 작업. 원래 작업의 결과를 각 단계에 차례로 넘긴다.
+ * <p>
+ * map 을 이어 붙이면 단계 배열을 공유하고 끝에 추가하므로, 단계 수 만큼 감싸는 객체가 생기지 않는다.
+ * 같은 Task 에서 두 번 map 하여 갈라지는 경우에만 배열을 복사한다.
+ */
+final class MapPipeline<T> implements Callable2<T> {
+    private final Callable2<?> source;
+    private final Stages stages;
+    private final Func[] funcs;
+    private final int length;
+
+    private MapPipeline(Callable2<?> source, Stages stages, Func[] funcs, int length) {
+        this.source = source;
+        this.stages = stages;
+        this.funcs = funcs;
+        this.length = length;
+    }
+
+    static <T, V> MapPipeline<V> map(Callable2<T> callable, Func<T, V> func) {
+        if (callable instanceof MapPipeline) {
+            //noinspection unchecked
+            return ((MapPipeline<T>) callable).append(func);
+        }
+
+        Stages stages = new Stages(4);
+        return new MapPipeline<>(callable, stages, stages.append(0, func), 1);
+    }
+
+    private <V> MapPipeline<V> append(Func<T, V> func) {
+        Stages s = stages;
+        Func[] f = s.append(length, func);
+        if (f == null) {
+            s = s.copy(length);
+            f = s.append(length, func);
+        }
+        return new MapPipeline<>(source, s, f, length + 1);
+    }
+
+    /**
+     * 첫 단계에 결과를 넘기는 원래 작업
+     */
+    Callable2<?> source() {
+        return source;
+    }
+
+    /**
+     * 단계 사이마다 실행의 취소 여부와 deadline 을 확인한다.
+     */
+    @Override
+    public T call() throws Throwable {
+        //noinspection unchecked
+        return (T) apply(TaskContext.call(source));
+    }
+
+    /**
+     * 원래 작업의 결과에 현재 스레드의 context 안에서 각 단계를 적용한다.
+     */
+    Object apply(Object value) throws Throwable {
+        final TaskContext context = TaskContext.current();
+        final Func[] funcs = this.funcs;
+        final long deadline = context != null ? context.deadline : TaskContext.NO_DEADLINE;
+        for (int i = 0; i < length; i++) {
+            if (context != null && context.isCancelled())
+                return null;
+            if (deadline != TaskContext.NO_DEADLINE && deadline - System.nanoTime() <= 0)
+                throw new TimeoutException("deadline exceeded");
+
+            //noinspection unchecked
+            value = funcs[i].func(value);
+        }
+
+        return context != null && context.isCancelled() ? null : value;
+    }
+
+    /**
+     * 여러 MapPipeline 이 앞부분을 공유하는 단계 배열. 배열의 끝에서만 단계를 추가할 수 있다.
+     */
+    private static final class Stages {
+        private Func[] funcs;
+        private int size;
+
+        Stages(int capacity) {
+            funcs = new Func[capacity];
+        }
+
+        /**
+         * @return at 이 배열의 끝이 아니면 null, 아니면 추가된 배열
+         */
+        synchronized Func[] append(int at, Func func) {
+            if (size != at)
+                return null;
+            if (size == funcs.length)
+                funcs = Arrays.copyOf(funcs, size * 2);
+            funcs[size++] = func;
+            return funcs;
+        }
+
+        synchronized Stages copy(int length) {
+            Stages s = new Stages(Math.max(4, length * 2));
+            System.arraycopy(funcs, 0, s.funcs, 0, length);
+            s.size = length;
+            return s;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package mj.android.utils.task;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 여러 작업을 fork/join 방식으로 실행한다.
+ * <p>
+ * 작업을 요청한 스레드도 직접 남은 작업을 가져가 실행하고, 시작되지 못한 작업을 기다리지 않는다.
+ * 따라서 스레드 풀이 가득 차 있거나 병렬 작업이 중첩되어도 교착 상태에 빠지지 않는다.
+ * <p>
+ * 요청한 스레드의 {@link TaskContext} 는 작업 스레드에도 적용되며, deadline 이 지나거나 실행이 취소되면 남은 작업을 취소한다.
+ */
+abstract class ParallelRunner implements Runnable, Cancelable {
+    static final int PARALLELISM = Math.max(1, Runtime.getRuntime().availableProcessors());
+
+    private final int count;
+    private final AtomicInteger cursor = new AtomicInteger(0);
+    private final AtomicInteger remaining;
+    private final CountDownLatch done = new CountDownLatch(1);
+    private final List<InterruptGuard> helpers = new ArrayList<>(PARALLELISM);
+    /**
+     * {@link #beforeClaim(boolean)} 때문에 작업을 가져가지 않고 떠난 작업 스레드 수
+     */
+    private final AtomicInteger parked = new AtomicInteger(0);
+    private boolean cancelled = false;
+    private TaskContext context;
+    private Executor executor;
+
+    ParallelRunner(int count) {
+        this.count = count;
+        this.remaining = new AtomicInteger(count);
+    }
+
+    /**
+     * index 번째 작업을 실행한다. 예외를 던지지 않아야 한다.
+     */
+    abstract void compute(int index);
+
+    /**
+     * 작업 스레드를 최대 코어 수 만큼 사용하여 모든 작업을 실행하고, 끝날 때 까지 기다린다.
+     */
+    final void run(Executor executor) throws InterruptedException, TimeoutException {
+        if (count == 0)
+            return;
+
+        this.executor = executor;
+        context = TaskContext.current();
+        if (context != null && !context.register(this))
+            return;
+
+        try {
+            runAndWait(executor);
+        } finally {
+            if (context != null)
+                context.unregister(this);
+        }
+    }
+
+    private void runAndWait(Executor executor) throws InterruptedException, TimeoutException {
+        final int helpers = Math.min(count, PARALLELISM) - 1;
+        for (int i = 0; i < helpers; i++) {
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                // 남은 작업은 현재 스레드가 실행한다.
+                break;
+            }
+        }
+
+        work(true);
+
+        try {
+            long remaining = TaskContext.remainingNanos();
+            if (remaining == Long.MAX_VALUE) {
+                done.await();
+            } else if (!done.await(remaining, TimeUnit.NANOSECONDS)) {
+                cancel();
+                throw new TimeoutException("deadline exceeded");
+            }
+        } catch (InterruptedException e) {
+            cancel();
+            throw e;
+        }
+    }
+
+    /**
+     * 아직 시작되지 않은 작업을 취소하고, 작업을 실행중인 작업 스레드를 인터럽트한다.
+     */
+    @Override
+    public final boolean cancel() {
+        int claimed = cursor.getAndSet(count);
+        if (claimed < count)
+            finish(count - claimed);
+
+        synchronized (helpers) {
+            cancelled = true;
+            for (InterruptGuard guard : helpers) {
+                guard.interrupt();
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public final void run() {
+        InterruptGuard guard = new InterruptGuard();
+        guard.enter();
+        synchronized (helpers) {
+            if (cancelled) {
+                guard.exit();
+                return;
+            }
+            helpers.add(guard);
+        }
+
+        TaskContext prev = TaskContext.enter(context);
+        try {
+            if (!work(false))
+                parked.incrementAndGet();
+        } finally {
+            TaskContext.restore(prev);
+            synchronized (helpers) {
+                helpers.remove(guard);
+            }
+            guard.exit();
+        }
+    }
+
+    /**
+     * 다음 작업을 가져가기 전에 호출된다. false 를 반환하면 이 스레드는 더 이상 작업을 가져가지 않는다.
+     *
+     * @param caller 작업을 요청한 스레드이면 true. 작업 스레드는 기다리지 말고 false 를 반환해야 하며,
+     *               그 스레드는 {@link #resume(int)} 으로 다시 요청할 수 있다.
+     */
+    boolean beforeClaim(boolean caller) {
+        return true;
+    }
+
+    /**
+     * {@link #beforeClaim(boolean)} 이후 가져갈 작업이 없었을 때 호출된다.
+     */
+    void claimFailed() {
+    }
+
+    /**
+     * {@link #beforeClaim(boolean)} 때문에 떠난 작업 스레드를 n 개 까지 다시 요청한다.
+     */
+    final void resume(int n) {
+        while (n > 0 && cursor.get() < count) {
+            int p = parked.get();
+            if (p == 0)
+                return;
+            if (!parked.compareAndSet(p, p - 1))
+                continue;
+            n--;
+            try {
+                executor.execute(this);
+            } catch (RejectedExecutionException e) {
+                // 남은 작업은 요청한 스레드가 실행한다.
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return 가져갈 작업이 없어 끝났으면 true, {@link #beforeClaim(boolean)} 때문에 멈췄으면 false
+     */
+    private boolean work(boolean caller) {
+        while (beforeClaim(caller)) {
+            int i = cursor.getAndIncrement();
+            if (i >= count) {
+                claimFailed();
+                return true;
+            }
+            compute(i);
+            finish(1);
+        }
+        return false;
+    }
+
+    private void finish(int n) {
+        if (remaining.addAndGet(-n) == 0)
+            done.countDown();
+    }
+}
@@ -0,0 +1,101 @@
+package mj.android.utils.task;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * token bucket 방식으로 단위 시간당 실행 횟수를 제한한다. {@link Task#rateLimited(RateLimiter)} 로 사용한다.
+ * <p>
+ * 쉬는 동안 최대 burst 개의 허가가 쌓인다. 허가를 기다리는 작업은 자신의 차례를 미리 예약하므로, 먼저 요청한 작업이 먼저 실행된다.
+ * 하나의 인스턴스를 여러 Task 와 TaskQueue 가 공유할 수 있다.
+ */
+public class RateLimiter extends Limiter {
+    private final long intervalNanos;
+    private final long burstNanos;
+    /**
+     * 다음 허가가 생기는 시각
+     */
+    private long nextAt;
+
+    public RateLimiter(double permitsPerSecond) {
+        this(permitsPerSecond, 1);
+    }
+
+    /**
+     * @param burst 쉬는 동안 쌓일 수 있는 허가의 수
+     */
+    public RateLimiter(double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0)
+            throw new IllegalArgumentException("permitsPerSecond <= 0");
+        if (burst < 1)
+            throw new IllegalArgumentException("burst < 1");
+
+        intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+        burstNanos = intervalNanos * (burst - 1);
+        nextAt = System.nanoTime() - burstNanos;
+    }
+
+    /**
+     * 기다리지 않고 허가를 받을 수 있으면 받는다.
+     */
+    public synchronized boolean tryAcquire() {
+        long now = System.nanoTime();
+        if (waitNanos(now) > 0)
+            return false;
+        reserve(now);
+        return true;
+    }
+
+    @Override
+    long acquire(Runnable waiter) {
+        return reserve(System.nanoTime());
+    }
+
+    @Override
+    void acquireBlocking() throws InterruptedException, TimeoutException {
+        long wait;
+        long reserved;
+        synchronized (this) {
+            long now = System.nanoTime();
+            wait = waitNanos(now);
+            // deadline 안에 받을 수 없는 허가는 예약하지 않는다.
+            if (wait >= TaskContext.remainingNanos())
+                throw new TimeoutException("deadline exceeded");
+            reserve(now);
+            reserved = nextAt;
+        }
+
+        if (wait > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(wait);
+            } catch (InterruptedException e) {
+                cancelReservation(reserved);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * 다음 허가를 예약한다.
+     *
+     * @return 예약한 허가를 사용할 수 있을 때 까지 남은 시간
+     */
+    private synchronized long reserve(long now) {
+        long wait = waitNanos(now);
+        nextAt = (nextAt - now < 0 ? now : nextAt) + intervalNanos;
+        return wait;
+    }
+
+    /**
+     * 사용하지 못한 예약을 되돌린다. 그 뒤에 다른 예약이 있으면 차례가 꼬이지 않도록 그대로 둔다.
+     */
+    private synchronized void cancelReservation(long reserved) {
+        if (nextAt == reserved)
+            nextAt -= intervalNanos;
+    }
+
+    private long waitNanos(long now) {
+        long at = nextAt - now < 0 ? now : nextAt;
+        return Math.max(0, at - burstNanos - now);
+    }
+}
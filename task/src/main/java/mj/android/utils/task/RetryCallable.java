@@ -0,0 +1,74 @@
+package mj.android.utils.task;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 실패한 작업을 {@link RetryPolicy} 에 따라 다시 실행한다.
+ * <p>
+ * {@link #call()} 은 재시도 사이에 호출한 스레드에서 기다린다. 단 Executor 의 스레드에서 다른 작업 안에 중첩되어
+ * 실행될 때는 {@link #MAX_POOLED_WAIT_NANOS} 보다 오래 기다려야 하면 바로 실패하여, 스레드를 점유하지 않고
+ * 바깥 DelayedTask 의 재시도에 맡긴다.
+ * DelayedTask 로 실행될 때는 {@link CallableDelayedTaskImpl} 이 {@link #attempt()} 를 한 번씩 실행하고,
+ * 기다리는 동안에는 스레드를 점유하지 않도록 Scheduler 에 다음 실행을 예약한다. map 으로 감싼 경우도 같다.
+ */
+class RetryCallable<T> implements Callable2<T> {
+    /**
+     * Executor 의 스레드에서 재시도 사이에 기다릴 수 있는 가장 긴 시간
+     */
+    static final long MAX_POOLED_WAIT_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+
+    final RetryPolicy policy;
+    private final Task<T> task;
+
+    RetryCallable(Task<T> task, RetryPolicy policy) {
+        this.task = task;
+        this.policy = policy;
+    }
+
+    @Override
+    public T call() throws Throwable {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return attempt();
+            } catch (Throwable t) {
+                if (TaskContext.cancelled())
+                    throw t;
+                long maxWait = TaskContext.remainingNanos();
+                if (!TaskContext.onCallerThread())
+                    maxWait = Math.min(maxWait, MAX_POOLED_WAIT_NANOS);
+                long delay = policy.nextDelayNanos(t, attempt, maxWait);
+                if (delay < 0)
+                    throw t;
+                TimeUnit.NANOSECONDS.sleep(delay);
+            }
+        }
+    }
+
+    /**
+     * @return c 가 재시도하는 작업이거나 그 결과를 map 하는 작업이면 그 RetryCallable, 아니면 null
+     */
+    static RetryCallable<?> of(Callable2<?> c) {
+        if (c instanceof MapPipeline)
+            c = ((MapPipeline<?>) c).source();
+        return c instanceof RetryCallable ? (RetryCallable<?>) c : null;
+    }
+
+    /**
+     * 한 번의 실행이 호출하는 작업
+     *
+     * @return 알 수 없으면 null
+     */
+    Callable2<?> source() {
+        return task instanceof BaseTask ? ((BaseTask<T>) task).callable() : null;
+    }
+
+    /**
+     * 작업을 한 번 실행한다.
+     */
+    T attempt() throws Throwable {
+        if (TaskContext.cancelled())
+            return null;
+
+        return task.get();
+    }
+}
@@ -0,0 +1,125 @@
+package mj.android.utils.task;
+
+import android.support.annotation.NonNull;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link Task#retry(RetryPolicy)} 에서 실패한 작업을 언제, 몇 번 다시 실행할지 정한다.
+ * <p>
+ * n 번째 재시도는 initialDelay * multiplier^(n-1) 만큼 기다리며, jitter 비율 만큼 무작위로 늘거나 줄어든다.
+ */
+public class RetryPolicy {
+    private static final Random RANDOM = new Random();
+
+    private final int maxAttempts;
+    private long initialDelayNanos = TimeUnit.MILLISECONDS.toNanos(100);
+    private double multiplier = 2;
+    private long maxDelayNanos = TimeUnit.SECONDS.toNanos(30);
+    private double jitter = 0;
+    private Func<Throwable, Boolean> predicate;
+
+    private final AtomicLong retryCount = new AtomicLong();
+    private final AtomicLong giveUpCount = new AtomicLong();
+
+    /**
+     * @param maxAttempts 처음 실행을 포함한 최대 실행 횟수
+     */
+    public RetryPolicy(int maxAttempts) {
+        if (maxAttempts < 1)
+            throw new IllegalArgumentException("maxAttempts < 1");
+        this.maxAttempts = maxAttempts;
+    }
+
+    public RetryPolicy backoff(long initialDelay, @NonNull TimeUnit unit, double multiplier) {
+        if (multiplier < 1)
+            throw new IllegalArgumentException("multiplier < 1");
+        this.initialDelayNanos = unit.toNanos(initialDelay);
+        this.multiplier = multiplier;
+        return this;
+    }
+
+    public RetryPolicy maxDelay(long maxDelay, @NonNull TimeUnit unit) {
+        this.maxDelayNanos = unit.toNanos(maxDelay);
+        return this;
+    }
+
+    /**
+     * @param jitter 0 ~ 1 사이의 비율. 0.2 이면 기다리는 시간이 ±20% 범위에서 정해진다.
+     */
+    public RetryPolicy jitter(double jitter) {
+        if (jitter < 0 || jitter > 1)
+            throw new IllegalArgumentException("jitter must be in [0, 1]");
+        this.jitter = jitter;
+        return this;
+    }
+
+    /**
+     * 주어진 에러에 대해 다시 실행할지 결정한다. 지정하지 않으면 모든 에러에 대해 다시 실행한다.
+     */
+    public RetryPolicy retryIf(Func<Throwable, Boolean> predicate) {
+        this.predicate = predicate;
+        return this;
+    }
+
+    /**
+     * 재시도한 횟수
+     */
+    public long getRetryCount() {
+        return retryCount.get();
+    }
+
+    /**
+     * 재시도를 포기하고 에러를 전달한 횟수
+     */
+    public long getGiveUpCount() {
+        return giveUpCount.get();
+    }
+
+    /**
+     * attempt 번째 실행이 실패했을 때, 다음 실행까지 기다릴 시간을 반환한다.
+     *
+     * @param maxWaitNanos 기다릴 수 있는 가장 긴 시간. 기다릴 시간이 이 보다 길면 다시 실행하지 않는다.
+     * @return 다시 실행하지 않는다면 -1
+     */
+    long nextDelayNanos(Throwable t, int attempt, long maxWaitNanos) {
+        if (attempt >= maxAttempts || !shouldRetry(t)) {
+            giveUpCount.incrementAndGet();
+            return -1;
+        }
+
+        double delay = initialDelayNanos * Math.pow(multiplier, attempt - 1);
+        if (jitter > 0) {
+            double r;
+            synchronized (RANDOM) {
+                r = RANDOM.nextDouble();
+            }
+            delay *= 1 - jitter + 2 * jitter * r;
+        }
+
+        long nanos = (long) Math.min(delay, maxDelayNanos);
+        if (nanos > maxWaitNanos) {
+            giveUpCount.incrementAndGet();
+            return -1;
+        }
+
+        retryCount.incrementAndGet();
+        return nanos;
+    }
+
+    private boolean shouldRetry(Throwable t) {
+        if (t instanceof InterruptedException)
+            return false;
+        if (predicate == null)
+            return true;
+        try {
+            Boolean b = predicate.func(t);
+            return b != null && b;
+        } catch (Throwable throwable) {
+            throwable.printStackTrace();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package mj.android.utils.task;
+
+import android.support.annotation.NonNull;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 작업을 실행할 스레드와 시점을 결정한다.
+ * <p>
+ * 기본 구현은 {@link Schedulers} 에서 얻을 수 있다.
+ */
+public interface Scheduler extends Executor {
+
+    /**
+     * 주어진 시간이 지난 뒤 작업을 실행한다.
+     *
+     * @return 예약을 취소할 수 있는 객체
+     */
+    Cancelable schedule(@NonNull Runnable r, long delay, @NonNull TimeUnit unit);
+
+    /**
+     * 이 Scheduler 의 현재 시간
+     */
+    long now(@NonNull TimeUnit unit);
+}
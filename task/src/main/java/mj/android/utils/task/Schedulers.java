@@ -0,0 +1,210 @@
+package mj.android.utils.task;
+
+import android.os.AsyncTask;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.NonNull;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public final class Schedulers {
+    private static volatile Scheduler background;
+    private static volatile Scheduler delivery;
+
+    private Schedulers() {
+    }
+
+    /**
+     * 작업이 기본적으로 실행되는 Scheduler. 설정하지 않으면 {@link AsyncTask#THREAD_POOL_EXECUTOR} 를 사용한다.
+     */
+    public static Scheduler background() {
+        Scheduler s = background;
+        if (s == null) {
+            synchronized (Schedulers.class) {
+                if ((s = background) == null)
+                    background = s = from(AsyncTask.THREAD_POOL_EXECUTOR);
+            }
+        }
+        return s;
+    }
+
+    public static void setBackground(@NonNull Scheduler scheduler) {
+        background = scheduler;
+    }
+
+    /**
+     * 결과가 기본적으로 전달되는 Scheduler. 설정하지 않으면 {@link #mainThread()} 를 사용한다.
+     */
+    public static Scheduler delivery() {
+        Scheduler s = delivery;
+        return s == null ? mainThread() : s;
+    }
+
+    public static void setDelivery(@NonNull Scheduler scheduler) {
+        delivery = scheduler;
+    }
+
+    /**
+     * 코어 수 만큼의 스레드를 사용하는, 연산 위주의 작업을 위한 Scheduler.
+     */
+    public static Scheduler computation() {
+        return ComputationHolder.INSTANCE;
+    }
+
+    /**
+     * 필요한 만큼 스레드를 늘리고, 쉬는 스레드는 정리하는 I/O 작업을 위한 Scheduler.
+     */
+    public static Scheduler io() {
+        return IoHolder.INSTANCE;
+    }
+
+    /**
+     * 하나의 스레드에서 작업을 순서대로 실행하는 Scheduler.
+     */
+    public static Scheduler single() {
+        return SingleHolder.INSTANCE;
+    }
+
+    /**
+     * 작업을 요청한 스레드에서 바로 실행하는 Scheduler.
+     */
+    public static Scheduler immediate() {
+        return ImmediateHolder.INSTANCE;
+    }
+
+    /**
+     * main looper 에서 작업을 실행하는 Scheduler.
+     */
+    public static Scheduler mainThread() {
+        return MainThreadHolder.INSTANCE;
+    }
+
+    /**
+     * 주어진 Executor 로 작업을 실행하는 Scheduler 를 생성한다.
+     */
+    public static Scheduler from(@NonNull Executor executor) {
+        if (executor instanceof Scheduler)
+            return (Scheduler) executor;
+        return new ExecutorScheduler(executor);
+    }
+
+    private static class ComputationHolder {
+        static final Scheduler INSTANCE = new ExecutorScheduler(new ThreadPoolExecutor(
+                ParallelRunner.PARALLELISM, ParallelRunner.PARALLELISM, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(), new NamedThreadFactory("Tasks-Computation")));
+    }
+
+    private static class IoHolder {
+        static final Scheduler INSTANCE = new ExecutorScheduler(new ThreadPoolExecutor(
+                0, Integer.MAX_VALUE, 60L, TimeUnit.SECONDS,
+                new SynchronousQueue<Runnable>(), new NamedThreadFactory("Tasks-IO")));
+    }
+
+    private static class SingleHolder {
+        static final Scheduler INSTANCE = new ExecutorScheduler(new ThreadPoolExecutor(
+                1, 1, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(), new NamedThreadFactory("Tasks-Single")));
+    }
+
+    private static class ImmediateHolder {
+        static final Scheduler INSTANCE = new ExecutorScheduler(new Executor() {
+            @Override
+            public void execute(@NonNull Runnable command) {
+                command.run();
+            }
+        });
+    }
+
+    private static class MainThreadHolder {
+        static final Scheduler INSTANCE = new HandlerScheduler();
+    }
+
+    /**
+     * 지연 실행은 공용 {@link TimerWheel} 에서 시간을 잰 뒤, 주어진 Executor 로 넘긴다.
+     */
+    private static class ExecutorScheduler implements Scheduler {
+        private final Executor executor;
+
+        ExecutorScheduler(Executor executor) {
+            this.executor = executor;
+        }
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            executor.execute(command);
+        }
+
+        @Override
+        public Cancelable schedule(@NonNull Runnable r, long delay, @NonNull TimeUnit unit) {
+            return TimerWheel.get().schedule(r, executor, delay, unit);
+        }
+
+        @Override
+        public long now(@NonNull TimeUnit unit) {
+            return unit.convert(System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Handler 는 처음 사용될 때 생성된다.
+     */
+    private static class HandlerScheduler implements Scheduler {
+        private volatile Handler handler;
+
+        private Handler handler() {
+            Handler h = handler;
+            if (h == null) {
+                synchronized (this) {
+                    if ((h = handler) == null)
+                        handler = h = new Handler(Looper.getMainLooper());
+                }
+            }
+            return h;
+        }
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            handler().post(command);
+        }
+
+        @Override
+        public Cancelable schedule(@NonNull final Runnable r, long delay, @NonNull TimeUnit unit) {
+            final Handler h = handler();
+            h.postDelayed(r, unit.toMillis(delay));
+            return new Cancelable() {
+                @Override
+                public boolean cancel() {
+                    h.removeCallbacks(r);
+                    return true;
+                }
+            };
+        }
+
+        @Override
+        public long now(@NonNull TimeUnit unit) {
+            return unit.convert(System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static class NamedThreadFactory implements ThreadFactory {
+        private final String name;
+        private final AtomicInteger count = new AtomicInteger(1);
+
+        NamedThreadFactory(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Thread newThread(@NonNull Runnable r) {
+            Thread thread = new Thread(r, name + " #" + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
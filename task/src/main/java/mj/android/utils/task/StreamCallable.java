@@ -0,0 +1,173 @@
+package mj.android.utils.task;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 주어진 Tasks 를 병렬로 실행하며, 각 결과를 끝나는 대로 {@link StreamListener} 에 전달한다.
+ * <p>
+ * ordered 이면 앞선 결과가 모두 전달될 때 까지 뒤의 결과를 보관했다가 index 순서대로 전달한다.
+ * maxPending 이 0 보다 크면, 실행중이거나 전달을 기다리는 결과가 maxPending 개를 넘지 않도록 다음 Task 의 시작을 늦춘다.
+ * 이 때 작업 스레드는 기다리지 않고 떠났다가 결과가 전달되면 다시 요청되며, 요청한 스레드만 deadline 까지 기다린다.
+ */
+class StreamCallable<T> implements Callable2<Void> {
+    private final Task[] tasks;
+    private final boolean ordered;
+    private final int maxPending;
+    private final StreamListener<T> listener;
+
+    StreamCallable(Task[] tasks, boolean ordered, int maxPending, StreamListener<T> listener) {
+        this.tasks = tasks;
+        this.ordered = ordered;
+        this.maxPending = maxPending;
+        this.listener = listener;
+    }
+
+    @Override
+    public Void call() throws Throwable {
+        if (TaskContext.cancelled())
+            return null;
+
+        final Stream stream = new Stream(Schedulers.delivery(), TaskContext.current());
+        if (tasks.length == 0) {
+            stream.observer.execute(stream.new Emit(0, 0));
+            return null;
+        }
+
+        ParallelRunner runner = new ParallelRunner(tasks.length) {
+            @Override
+            boolean beforeClaim(boolean caller) {
+                if (stream.permits == null)
+                    return true;
+                if (!acquire(stream.permits, caller))
+                    return false;
+                if (stream.isCancelled()) {
+                    stream.permits.release();
+                    return false;
+                }
+                return true;
+            }
+
+            @Override
+            void claimFailed() {
+                if (stream.permits != null)
+                    stream.permits.release();
+            }
+
+            @Override
+            void compute(int index) {
+                try {
+                    //noinspection unchecked
+                    stream.results[index] = tasks[index].get();
+                } catch (Throwable throwable) {
+                    stream.errors[index] = throwable;
+                }
+                stream.complete(index);
+            }
+        };
+        stream.runner = runner;
+        runner.run(Schedulers.background());
+        return null;
+    }
+
+    /**
+     * 작업 스레드는 허가가 없으면 바로 false 를 반환하고, 요청한 스레드는 deadline 까지 기다린다.
+     */
+    private static boolean acquire(Semaphore permits, boolean caller) {
+        if (!caller)
+            return permits.tryAcquire();
+        try {
+            long remaining = TaskContext.remainingNanos();
+            if (remaining == Long.MAX_VALUE) {
+                permits.acquire();
+                return true;
+            }
+            return permits.tryAcquire(remaining, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private class Stream {
+        final Executor observer;
+        final TaskContext context;
+        final Object[] results = new Object[tasks.length];
+        final Throwable[] errors = new Throwable[tasks.length];
+        final Semaphore permits = maxPending > 0 ? new Semaphore(maxPending) : null;
+        final AtomicInteger delivered = new AtomicInteger(0);
+        volatile ParallelRunner runner;
+        private final boolean[] done = ordered ? new boolean[tasks.length] : null;
+        private int next = 0;
+
+        Stream(Executor observer, TaskContext context) {
+            this.observer = observer;
+            this.context = context;
+        }
+
+        /**
+         * 실행이 취소되면 남은 결과와 {@link StreamListener#onComplete()} 를 전달하지 않는다.
+         */
+        boolean isCancelled() {
+            return context != null && context.isCancelled();
+        }
+
+        void complete(int index) {
+            if (!ordered) {
+                observer.execute(new Emit(index, index + 1));
+                return;
+            }
+
+            int from, to;
+            synchronized (this) {
+                done[index] = true;
+                if (index != next)
+                    return;
+                from = next;
+                while (next < done.length && done[next])
+                    next++;
+                to = next;
+            }
+            observer.execute(new Emit(from, to));
+        }
+
+        /**
+         * [from, to) 구간의 결과를 전달하고, 그 만큼 다음 Task 가 시작될 수 있도록 한다.
+         */
+        class Emit implements Runnable {
+            private final int from, to;
+
+            Emit(int from, int to) {
+                this.from = from;
+                this.to = to;
+            }
+
+            @Override
+            public void run() {
+                try {
+                    for (int i = from; i < to && !isCancelled(); i++) {
+                        if (errors[i] != null) {
+                            listener.onError(i, errors[i]);
+                        } else {
+                            //noinspection unchecked
+                            listener.onNext(i, (T) results[i]);
+                        }
+                        results[i] = null;
+                        errors[i] = null;
+                    }
+                } finally {
+                    if (permits != null) {
+                        permits.release(to - from);
+                        if (runner != null)
+                            runner.resume(to - from);
+                    }
+                }
+
+                if (delivered.addAndGet(to - from) == tasks.length && !isCancelled())
+                    listener.onComplete();
+            }
+        }
+    }
+}
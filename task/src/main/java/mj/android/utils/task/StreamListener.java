@@ -0,0 +1,21 @@
+package mj.android.utils.task;
+
+/**
+ * {@link Tasks.Parallel#parallelStream(java.util.Collection, boolean, int, StreamListener)} 의 결과를 하나씩 받는다.
+ */
+public interface StreamListener<T> {
+    /**
+     * index 번째 Task 의 결과
+     */
+    void onNext(int index, T result);
+
+    /**
+     * index 번째 Task 에서 발생한 에러. 나머지 Task 는 계속 실행된다.
+     */
+    void onError(int index, Throwable t);
+
+    /**
+     * 모든 결과가 전달된 뒤 호출된다. 취소된 경우엔 호출되지 않는다.
+     */
+    void onComplete();
+}
@@ -1,14 +1,50 @@
 package mj.android.utils.task;
 
+import java.util.concurrent.TimeUnit;
 
 public interface Task<T> {
+    /**
+     * 현재 스레드에서 작업을 실행한다. 같은 Task 를 여러 번 실행할 수 있다.
+     */
     T get() throws Throwable;
 
     DelayedTask<T> delayed();
 
     <V> Task<V> map(Func<T, V> func);
 
+    /**
+     * 주어진 시간 안에 끝나지 않으면 작업을 취소하고 {@link java.util.concurrent.TimeoutException} 을 던지는 Task 를 반환한다.
+     * <p>
+     * map, serialTask, parallelTask 로 이어진 하위 작업은 남은 시간을 물려받는다.
+     */
+    Task<T> timeout(long timeout, TimeUnit unit);
+
+    /**
+     * 실패하면 policy 에 따라 다시 실행하는 Task 를 반환한다.
+     * <p>
+     * 이 Task 를 바로 {@link #delayed()} 로 실행하면 재시도를 기다리는 동안 스레드를 점유하지 않는다.
+     * {@link #get()} 이나 다른 Task 의 하위 작업으로 실행되면 실행중인 스레드에서 기다린다.
+     */
+    Task<T> retry(RetryPolicy policy);
+
+    /**
+     * limiter 가 허락하는 속도로만 실행되는 Task 를 반환한다.
+     * <p>
+     * 이 Task 를 바로 {@link #delayed()} 로 실행하면 허가를 기다리는 동안 스레드를 점유하지 않는다.
+     * {@link #get()} 이나 다른 Task 의 하위 작업으로 실행되면 실행중인 스레드에서 기다린다.
+     */
+    Task<T> rateLimited(RateLimiter limiter);
+
+    /**
+     * limiter 를 공유하는 작업이 동시에 정해진 수 이하로만 실행되도록 하는 Task 를 반환한다.
+     * 허가를 기다리는 방식은 {@link #rateLimited(RateLimiter)} 와 같다.
+     */
+    Task<T> limited(ConcurrencyLimiter limiter);
+
     //boolean cancel();
 
+    /**
+     * 같은 작업을 공유하는 복사본을 반환한다. {@link BaseTask#cancel()} 은 복사본 별로 따로 이루어진다.
+     */
     Task<T> clone();
 }
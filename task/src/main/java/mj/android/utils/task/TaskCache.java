@@ -0,0 +1,178 @@
+package mj.android.utils.task;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Task 의 결과를 key 별로 보관하는 LRU 캐시.
+ *
+ * @see Tasks#cached(String, Task, CachePolicy, TaskCache)
+ */
+public class TaskCache {
+    private static final TaskCache DEFAULT = new TaskCache(64);
+
+    private final LinkedHashMap<String, CacheEntry> map;
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong staleHitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong evictionCount = new AtomicLong();
+
+    public TaskCache(final int maxSize) {
+        if (maxSize < 1)
+            throw new IllegalArgumentException("maxSize < 1");
+
+        map = new LinkedHashMap<String, CacheEntry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+                if (size() > maxSize) {
+                    evictionCount.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * {@link Tasks#cached(String, Task, CachePolicy)} 가 사용하는 캐시
+     */
+    public static TaskCache getDefault() {
+        return DEFAULT;
+    }
+
+    public synchronized void invalidate(String key) {
+        map.remove(key);
+    }
+
+    public synchronized void clear() {
+        map.clear();
+    }
+
+    public synchronized int size() {
+        return map.size();
+    }
+
+    /**
+     * ttl 이내의 결과를 반환한 횟수
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * ttl 이 지난 결과를 반환하고 백그라운드에서 갱신한 횟수
+     */
+    public long getStaleHitCount() {
+        return staleHitCount.get();
+    }
+
+    /**
+     * 결과를 새로 계산한 횟수
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * 크기 제한으로 결과가 제거된 횟수
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    private synchronized CacheEntry get(String key) {
+        return map.get(key);
+    }
+
+    private synchronized void put(String key, Object value) {
+        map.put(key, new CacheEntry(value, System.nanoTime()));
+    }
+
+    private static class CacheEntry {
+        final Object value;
+        final long writtenAt;
+        final AtomicBoolean refreshing = new AtomicBoolean(false);
+
+        CacheEntry(Object value, long writtenAt) {
+            this.value = value;
+            this.writtenAt = writtenAt;
+        }
+    }
+
+    static class CachedCallable<T> implements Callable2<T> {
+        private final String key;
+        private final Task<T> task;
+        private final CachePolicy policy;
+        private final TaskCache cache;
+
+        CachedCallable(String key, Task<T> task, CachePolicy policy, TaskCache cache) {
+            this.key = key;
+            this.task = task;
+            this.policy = policy;
+            this.cache = cache;
+        }
+
+        @Override
+        public T call() throws Throwable {
+            CacheEntry entry = cache.get(key);
+            if (entry != null) {
+                long age = System.nanoTime() - entry.writtenAt;
+                if (age < policy.ttlNanos) {
+                    cache.hitCount.incrementAndGet();
+                    //noinspection unchecked
+                    return (T) entry.value;
+                }
+                if (age < policy.ttlNanos + policy.staleNanos) {
+                    cache.staleHitCount.incrementAndGet();
+                    revalidate(entry);
+                    //noinspection unchecked
+                    return (T) entry.value;
+                }
+            }
+
+            cache.missCount.incrementAndGet();
+            T t = task.get();
+            // 취소되거나 deadline 이 지난 실행은 결과 대신 null 을 반환하므로 저장하지 않는다.
+            if (!TaskContext.cancelled())
+                cache.put(key, t);
+            return t;
+        }
+
+        /**
+         * 결과를 백그라운드에서 갱신한다. 갱신이 어떻게 끝나든 atLast 에서 다음 갱신을 허용한다.
+         */
+        private void revalidate(final CacheEntry entry) {
+            if (!entry.refreshing.compareAndSet(false, true))
+                return;
+
+            try {
+                task.delayed()
+                        .observeOn(Schedulers.immediate())
+                        .result(new ResultListener<T>() {
+                            @Override
+                            public void onResult(T result) {
+                                cache.put(key, result);
+                            }
+                        })
+                        .error(new ErrorListener() {
+                            @Override
+                            public void onError(Throwable t) {
+                                // 갱신에 실패하면 이전 결과를 계속 사용한다.
+                            }
+                        })
+                        .atLast(new Runnable() {
+                            @Override
+                            public void run() {
+                                entry.refreshing.set(false);
+                            }
+                        })
+                        .execute();
+            } catch (RejectedExecutionException e) {
+                entry.refreshing.set(false);
+            }
+        }
+    }
+}
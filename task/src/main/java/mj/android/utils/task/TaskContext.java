@@ -0,0 +1,227 @@
+package mj.android.utils.task;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 한 번의 실행에 속한 상태. 작업을 끝내야 하는 시각(deadline)과 취소 여부를 담는다.
+ * <p>
+ * Task 는 여러 번 실행될 수 있는 작업의 설명일 뿐이며, 실행 마다 달라지는 상태는 이 곳에 둔다.
+ * 현재 스레드에 설정되며, 병렬 작업의 작업 스레드에는 {@link ParallelRunner} 가 옮겨준다.
+ * <p>
+ * 하위 context 는 상위 context 가 취소되면 함께 취소되고, 하위 context 를 취소해도 상위 context 에는 영향이 없다.
+ */
+final class TaskContext implements Cancelable {
+    static final long NO_DEADLINE = Long.MAX_VALUE;
+
+    private static final ThreadLocal<TaskContext> CURRENT = new ThreadLocal<>();
+
+    /**
+     * {@link System#nanoTime()} 기준의 deadline
+     */
+    final long deadline;
+    private final TaskContext parent;
+    /**
+     * {@link Task#get()} 을 호출하여 결과를 기다리는 스레드. Executor 에서 시작된 실행이면 null
+     */
+    private final Thread caller;
+    private volatile boolean cancelled = false;
+    /**
+     * 실행을 시작하기 전에 미리 받아 둔 {@link Limiter} 의 허가. 실행하는 스레드에서만 사용된다.
+     */
+    Limiter permit;
+    /**
+     * 취소될 때 함께 취소할 대상. 하나이면 Cancelable, 여럿이면 ArrayList 이다.
+     */
+    private Object hooks;
+
+    /**
+     * 상위 실행이 없는 새 실행
+     */
+    TaskContext() {
+        this(null, NO_DEADLINE, Thread.currentThread());
+    }
+
+    private TaskContext(TaskContext parent, long deadline, Thread caller) {
+        this.parent = parent;
+        this.deadline = deadline;
+        this.caller = caller;
+    }
+
+    /**
+     * 현재 실행의 하위 실행을 만든다. deadline 은 현재 실행의 것을 따른다.
+     * 사용이 끝나면 {@link #close()} 해야 한다.
+     */
+    static TaskContext fork() {
+        return fork(deadline());
+    }
+
+    /**
+     * 주어진 deadline 을 갖는, 현재 실행의 하위 실행을 만든다. 사용이 끝나면 {@link #close()} 해야 한다.
+     */
+    static TaskContext fork(long deadline) {
+        TaskContext parent = CURRENT.get();
+        TaskContext context = new TaskContext(parent, deadline, parent != null ? parent.caller : null);
+        if (parent != null && !parent.register(context))
+            context.cancelled = true;
+        return context;
+    }
+
+    /**
+     * 상위 실행에서 이 실행을 떼어낸다.
+     */
+    void close() {
+        if (parent != null)
+            parent.unregister(this);
+    }
+
+    static TaskContext current() {
+        return CURRENT.get();
+    }
+
+    static TaskContext enter(TaskContext context) {
+        TaskContext prev = CURRENT.get();
+        CURRENT.set(context);
+        return prev;
+    }
+
+    static void restore(TaskContext prev) {
+        CURRENT.set(prev);
+    }
+
+    /**
+     * 현재 실행 안에서 작업을 실행한다. 작업이 {@link Cancelable} 이면 실행되는 동안 취소를 전달받는다.
+     *
+     * @return 이미 취소되었다면 실행하지 않고 null
+     */
+    static <T> T call(Callable2<T> callable) throws Throwable {
+        TaskContext context = CURRENT.get();
+        if (context == null || !(callable instanceof Cancelable))
+            return context != null && context.cancelled ? null : callable.call();
+
+        Cancelable c = (Cancelable) callable;
+        if (!context.register(c))
+            return null;
+        try {
+            return callable.call();
+        } finally {
+            context.unregister(c);
+        }
+    }
+
+    /**
+     * 현재 실행이 limiter 의 허가를 미리 받아 두었다면 그 허가를 사용한다. 허가의 반납은 받아 둔 쪽에서 한다.
+     */
+    static boolean takePermit(Limiter limiter) {
+        TaskContext context = CURRENT.get();
+        if (context == null || context.permit != limiter)
+            return false;
+        context.permit = null;
+        return true;
+    }
+
+    /**
+     * @return 현재 실행이 취소되었는지 여부
+     */
+    static boolean cancelled() {
+        TaskContext context = CURRENT.get();
+        return context != null && context.cancelled;
+    }
+
+    /**
+     * @return 현재 스레드가 {@link Task#get()} 을 호출하여 결과를 기다리는 스레드인지 여부.
+     * Executor 의 스레드나 병렬 작업을 돕는 스레드이면 false
+     */
+    static boolean onCallerThread() {
+        TaskContext context = CURRENT.get();
+        return context == null || context.caller == Thread.currentThread();
+    }
+
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * 이 실행이 취소될 때 함께 취소될 대상을 등록한다.
+     *
+     * @return 이미 취소되었다면 등록하지 않고 false
+     */
+    synchronized boolean register(Cancelable c) {
+        if (cancelled)
+            return false;
+
+        if (hooks == null) {
+            hooks = c;
+        } else if (hooks instanceof ArrayList) {
+            //noinspection unchecked
+            ((ArrayList<Cancelable>) hooks).add(c);
+        } else {
+            ArrayList<Cancelable> list = new ArrayList<>(4);
+            list.add((Cancelable) hooks);
+            list.add(c);
+            hooks = list;
+        }
+        return true;
+    }
+
+    synchronized void unregister(Cancelable c) {
+        if (hooks == c) {
+            hooks = null;
+        } else if (hooks instanceof ArrayList) {
+            ((ArrayList) hooks).remove(c);
+        }
+    }
+
+    /**
+     * 이 실행과 하위 실행을 취소하고, 등록된 대상에 취소를 전달한다.
+     */
+    @Override
+    public boolean cancel() {
+        Object h;
+        synchronized (this) {
+            if (cancelled)
+                return false;
+            cancelled = true;
+            h = hooks;
+            hooks = null;
+        }
+
+        if (h instanceof ArrayList) {
+            for (Object o : (ArrayList) h) {
+                ((Cancelable) o).cancel();
+            }
+        } else if (h != null) {
+            ((Cancelable) h).cancel();
+        }
+        return true;
+    }
+
+    static long deadline() {
+        TaskContext context = CURRENT.get();
+        return context == null ? NO_DEADLINE : context.deadline;
+    }
+
+    /**
+     * @return deadline 까지 남은 시간. deadline 이 없으면 {@link Long#MAX_VALUE}
+     */
+    static long remainingNanos() {
+        long deadline = deadline();
+        return deadline == NO_DEADLINE ? Long.MAX_VALUE : deadline - System.nanoTime();
+    }
+
+    static void checkDeadline() throws TimeoutException {
+        if (remainingNanos() <= 0)
+            throw new TimeoutException("deadline exceeded");
+    }
+
+    /**
+     * 두 deadline 중 먼저 오는 것을 반환한다.
+     */
+    static long earlier(long a, long b) {
+        if (a == NO_DEADLINE)
+            return b;
+        if (b == NO_DEADLINE)
+            return a;
+        return a - b < 0 ? a : b;
+    }
+}
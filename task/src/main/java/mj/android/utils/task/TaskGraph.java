@@ -0,0 +1,503 @@
+package mj.android.utils.task;
+
+import android.support.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 의존 관계가 있는 Task 들을 실행하는 Task 를 만든다.
+ * <p>
+ * 각 노드는 자신이 의존하는 노드가 모두 끝나는 즉시 실행되며, 앞선 노드의 결과는 {@link Result} 로 얻는다.
+ * 노드에서 에러가 발생하면 그 노드에 의존하는 노드는 실행되지 않고, 관계 없는 노드는 계속 실행된 뒤 그 에러를 던진다.
+ * <pre>
+ * TaskGraph graph = new TaskGraph();
+ * final TaskGraph.Node&lt;A&gt; a = graph.add("a", taskA);
+ * final TaskGraph.Node&lt;B&gt; b = graph.add("b", taskB);
+ * TaskGraph.Node&lt;C&gt; c = graph.add("c", new Func&lt;TaskGraph.Result, C&gt;() {
+ *     public C func(TaskGraph.Result r) { return new C(r.get(a), r.get(b)); }
+ * }).dependsOn(a, b);
+ * Task&lt;TaskGraph.Result&gt; task = graph.build();
+ * </pre>
+ */
+public class TaskGraph {
+    private final List<Node<?>> nodes = new ArrayList<>();
+
+    /**
+     * 다른 노드의 결과를 사용하지 않는 노드를 추가한다.
+     */
+    public <T> Node<T> add(@NonNull String name, @NonNull Task<T> task) {
+        return add(name, task, null);
+    }
+
+    /**
+     * 의존하는 노드의 결과로 값을 계산하는 노드를 추가한다.
+     */
+    public <T> Node<T> add(@NonNull String name, @NonNull Func<Result, T> func) {
+        return add(name, null, func);
+    }
+
+    private synchronized <T> Node<T> add(String name, Task<T> task, Func<Result, T> func) {
+        Node<T> node = new Node<>(this, nodes.size(), name, task, func);
+        nodes.add(node);
+        return node;
+    }
+
+    /**
+     * 지금까지 추가된 노드로 Task 를 만든다. 이후 그래프를 수정해도 반환된 Task 에는 영향이 없다.
+     *
+     * @throws IllegalStateException 순환하는 의존 관계가 있을 때
+     */
+    public synchronized Task<Result> build() {
+        final int n = nodes.size();
+        Task[] tasks = new Task[n];
+        Func[] funcs = new Func[n];
+        int[][] dependencies = new int[n][];
+        int[] dependentCount = new int[n];
+
+        for (int i = 0; i < n; i++) {
+            Node<?> node = nodes.get(i);
+            tasks[i] = node.task;
+            funcs[i] = node.func;
+            int[] deps = new int[node.dependencies.size()];
+            for (int j = 0; j < deps.length; j++) {
+                deps[j] = node.dependencies.get(j).index;
+                dependentCount[deps[j]]++;
+            }
+            dependencies[i] = deps;
+        }
+
+        int[][] dependents = new int[n][];
+        for (int i = 0; i < n; i++) {
+            dependents[i] = new int[dependentCount[i]];
+            dependentCount[i] = 0;
+        }
+        for (int i = 0; i < n; i++) {
+            for (int d : dependencies[i]) {
+                dependents[d][dependentCount[d]++] = i;
+            }
+        }
+
+        checkCycle(dependencies, dependents);
+
+        return new GraphTaskImpl(new Graph(nodes.toArray(new Node[n]), tasks, funcs, dependencies, dependents));
+    }
+
+    /**
+     * 진입 차수가 0 인 노드부터 제거해 나가며, 남는 노드가 있으면 순환이 있는 것이다.
+     */
+    private void checkCycle(int[][] dependencies, int[][] dependents) {
+        final int n = dependencies.length;
+        int[] pending = new int[n];
+        int[] queue = new int[n];
+        int tail = 0;
+        for (int i = 0; i < n; i++) {
+            pending[i] = dependencies[i].length;
+            if (pending[i] == 0)
+                queue[tail++] = i;
+        }
+
+        for (int head = 0; head < tail; head++) {
+            for (int d : dependents[queue[head]]) {
+                if (--pending[d] == 0)
+                    queue[tail++] = d;
+            }
+        }
+
+        if (tail < n) {
+            StringBuilder sb = new StringBuilder("cycle detected :");
+            for (int i = 0; i < n; i++) {
+                if (pending[i] > 0)
+                    sb.append(' ').append(nodes.get(i).name);
+            }
+            throw new IllegalStateException(sb.toString());
+        }
+    }
+
+    public static final class Node<T> {
+        private final TaskGraph graph;
+        final int index;
+        final String name;
+        final Task<T> task;
+        final Func<Result, T> func;
+        final List<Node<?>> dependencies = new ArrayList<>();
+
+        private Node(TaskGraph graph, int index, String name, Task<T> task, Func<Result, T> func) {
+            this.graph = graph;
+            this.index = index;
+            this.name = name;
+            this.task = task;
+            this.func = func;
+        }
+
+        /**
+         * 주어진 노드가 모두 끝난 뒤 이 노드가 실행되도록 한다.
+         */
+        public Node<T> dependsOn(@NonNull Node<?>... nodes) {
+            synchronized (graph) {
+                for (Node<?> node : nodes) {
+                    if (node.graph != graph)
+                        throw new IllegalArgumentException("node " + node.name + " belongs to another graph");
+                    if (!dependencies.contains(node))
+                        dependencies.add(node);
+                }
+            }
+            return this;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    /**
+     * 각 노드의 결과와 실행 시간.
+     */
+    public static final class Result {
+        private final Graph graph;
+        private final Object[] values;
+        private final long[] startedAt;
+        private final long[] endedAt;
+        private long runStartedAt, runEndedAt;
+
+        private Result(Graph graph) {
+            int n = graph.nodes.length;
+            this.graph = graph;
+            this.values = new Object[n];
+            this.startedAt = new long[n];
+            this.endedAt = new long[n];
+        }
+
+        /**
+         * 노드의 결과. 노드 안에서는 의존하는 노드의 결과만 얻을 수 있다.
+         */
+        public <T> T get(@NonNull Node<T> node) {
+            //noinspection unchecked
+            return (T) values[indexOf(node)];
+        }
+
+        /**
+         * 노드가 실행되는데 걸린 시간
+         */
+        public long getTime(@NonNull Node<?> node, @NonNull TimeUnit unit) {
+            int i = indexOf(node);
+            return unit.convert(endedAt[i] - startedAt[i], TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * 그래프 전체가 실행되는데 걸린 시간
+         */
+        public long getElapsedTime(@NonNull TimeUnit unit) {
+            return unit.convert(runEndedAt - runStartedAt, TimeUnit.NANOSECONDS);
+        }
+
+        /**
+         * 가장 늦게 끝난 노드로부터, 시작을 가장 늦게 만든 의존 노드를 차례로 따라간 경로. 실행 순서대로 반환한다.
+         */
+        public List<Node<?>> getCriticalPath() {
+            ArrayList<Node<?>> path = new ArrayList<>();
+            int i = lastNode();
+            while (i >= 0) {
+                path.add(graph.nodes[i]);
+                i = latestDependency(i);
+            }
+            Collections.reverse(path);
+            return path;
+        }
+
+        /**
+         * {@link #getCriticalPath()} 의 첫 노드가 시작된 때부터 마지막 노드가 끝날 때 까지의 시간
+         */
+        public long getCriticalPathTime(@NonNull TimeUnit unit) {
+            int last = lastNode();
+            if (last < 0)
+                return 0;
+
+            int first = last;
+            for (int i = latestDependency(last); i >= 0; i = latestDependency(i)) {
+                first = i;
+            }
+            return unit.convert(endedAt[last] - startedAt[first], TimeUnit.NANOSECONDS);
+        }
+
+        private int lastNode() {
+            int last = -1;
+            for (int i = 0; i < endedAt.length; i++) {
+                if (last < 0 || endedAt[i] > endedAt[last])
+                    last = i;
+            }
+            return last;
+        }
+
+        private int latestDependency(int i) {
+            int latest = -1;
+            for (int d : graph.dependencies[i]) {
+                if (latest < 0 || endedAt[d] > endedAt[latest])
+                    latest = d;
+            }
+            return latest;
+        }
+
+        private int indexOf(Node<?> node) {
+            if (node.index >= graph.nodes.length || graph.nodes[node.index] != node)
+                throw new IllegalArgumentException("node " + node.name + " is not in this graph");
+            return node.index;
+        }
+    }
+
+    private static final class Graph {
+        final Node[] nodes;
+        final Task[] tasks;
+        final Func[] funcs;
+        final int[][] dependencies;
+        final int[][] dependents;
+
+        Graph(Node[] nodes, Task[] tasks, Func[] funcs, int[][] dependencies, int[][] dependents) {
+            this.nodes = nodes;
+            this.tasks = tasks;
+            this.funcs = funcs;
+            this.dependencies = dependencies;
+            this.dependents = dependents;
+        }
+    }
+
+    private static class GraphTaskImpl extends BaseTask<Result> {
+
+        GraphTaskImpl(Graph graph) {
+            super(new GraphCallable(graph));
+        }
+    }
+
+    /**
+     * 실행이 취소되면 아직 시작되지 않은 노드는 실행하지 않고, 작업 스레드를 인터럽트한다.
+     */
+    private static class GraphCallable implements Callable2<Result> {
+        private final Graph graph;
+
+        GraphCallable(Graph graph) {
+            this.graph = graph;
+        }
+
+        @Override
+        public Result call() throws Throwable {
+            TaskContext context = TaskContext.current();
+            Run r = new Run(graph);
+            if (context != null && !context.register(r))
+                return null;
+
+            try {
+                r.execute();
+            } finally {
+                if (context != null)
+                    context.unregister(r);
+            }
+
+            if (TaskContext.cancelled())
+                return null;
+            if (r.error != null)
+                throw r.error;
+            return r.result;
+        }
+    }
+
+    /**
+     * 한 번의 실행 상태. 준비된 노드는 큐에 쌓이고, 요청한 스레드와 작업 스레드가 나누어 실행한다.
+     */
+    private static final class Run implements Runnable, Cancelable {
+        private static final byte WAITING = 0, DONE = 1, FAILED = 2, SKIPPED = 3;
+
+        final Graph graph;
+        final Result result;
+        Throwable error;
+
+        private final int[] pending;
+        private final byte[] state;
+        private final int[] queue;
+        private int head = 0, tail = 0;
+        private int remaining;
+        private int helpers = 0;
+        private boolean cancelled = false;
+        private final List<InterruptGuard> guards = new ArrayList<>(ParallelRunner.PARALLELISM);
+        private TaskContext context;
+
+        Run(Graph graph) {
+            final int n = graph.nodes.length;
+            this.graph = graph;
+            this.result = new Result(graph);
+            this.pending = new int[n];
+            this.state = new byte[n];
+            this.queue = new int[n];
+            this.remaining = n;
+        }
+
+        void execute() throws InterruptedException, TimeoutException {
+            context = TaskContext.current();
+            result.runStartedAt = System.nanoTime();
+
+            synchronized (this) {
+                for (int i = 0; i < pending.length; i++) {
+                    pending[i] = graph.dependencies[i].length;
+                    if (pending[i] == 0)
+                        queue[tail++] = i;
+                }
+            }
+            spawnHelpers();
+
+            try {
+                while (true) {
+                    work();
+                    synchronized (this) {
+                        while (head == tail && remaining > 0 && !cancelled) {
+                            long nanos = TaskContext.remainingNanos();
+                            if (nanos == Long.MAX_VALUE) {
+                                wait();
+                            } else if (nanos <= 0) {
+                                throw new TimeoutException("deadline exceeded");
+                            } else {
+                                TimeUnit.NANOSECONDS.timedWait(this, nanos);
+                            }
+                        }
+                        if (remaining == 0 || cancelled)
+                            break;
+                    }
+                }
+            } catch (InterruptedException | TimeoutException e) {
+                cancel();
+                throw e;
+            }
+
+            result.runEndedAt = System.nanoTime();
+        }
+
+        @Override
+        public boolean cancel() {
+            synchronized (this) {
+                cancelled = true;
+                for (InterruptGuard guard : guards) {
+                    guard.interrupt();
+                }
+                notifyAll();
+            }
+            return true;
+        }
+
+        @Override
+        public void run() {
+            InterruptGuard guard = new InterruptGuard();
+            guard.enter();
+            synchronized (this) {
+                if (cancelled) {
+                    helpers--;
+                    guard.exit();
+                    return;
+                }
+                guards.add(guard);
+            }
+
+            TaskContext prev = TaskContext.enter(context);
+            try {
+                work();
+            } finally {
+                TaskContext.restore(prev);
+                synchronized (this) {
+                    helpers--;
+                    guards.remove(guard);
+                }
+                guard.exit();
+            }
+        }
+
+        private void work() {
+            while (true) {
+                int i;
+                synchronized (this) {
+                    if (head == tail || cancelled)
+                        return;
+                    i = queue[head++];
+                }
+
+                Object value = null;
+                Throwable throwable = null;
+                result.startedAt[i] = System.nanoTime();
+                try {
+                    if (graph.tasks[i] != null) {
+                        value = graph.tasks[i].get();
+                    } else {
+                        //noinspection unchecked
+                        value = graph.funcs[i].func(result);
+                    }
+                } catch (Throwable t) {
+                    throwable = t;
+                }
+                result.endedAt[i] = System.nanoTime();
+
+                complete(i, value, throwable);
+            }
+        }
+
+        private void complete(int i, Object value, Throwable throwable) {
+            synchronized (this) {
+                remaining--;
+                if (throwable == null) {
+                    state[i] = DONE;
+                    result.values[i] = value;
+                    for (int d : graph.dependents[i]) {
+                        if (--pending[d] == 0 && state[d] == WAITING)
+                            queue[tail++] = d;
+                    }
+                } else {
+                    state[i] = FAILED;
+                    if (error == null)
+                        error = throwable;
+                    skipDependents(i);
+                }
+                notifyAll();
+            }
+            spawnHelpers();
+        }
+
+        /**
+         * 실패한 노드에 의존하는 노드를 모두 실행하지 않은 것으로 처리한다.
+         */
+        private void skipDependents(int i) {
+            for (int d : graph.dependents[i]) {
+                if (state[d] == WAITING) {
+                    state[d] = SKIPPED;
+                    remaining--;
+                    skipDependents(d);
+                }
+            }
+        }
+
+        /**
+         * 대기중인 노드 수 만큼, 최대 코어 수 - 1 개 까지 작업 스레드를 사용한다.
+         */
+        private void spawnHelpers() {
+            while (true) {
+                synchronized (this) {
+                    if (cancelled || helpers >= Math.min(tail - head, ParallelRunner.PARALLELISM - 1))
+                        return;
+                    helpers++;
+                }
+                try {
+                    Schedulers.background().execute(this);
+                } catch (RejectedExecutionException e) {
+                    // 남은 노드는 요청한 스레드가 실행한다.
+                    synchronized (this) {
+                        helpers--;
+                    }
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package mj.android.utils.task;
+
+/**
+ * 작업의 실행 과정을 관찰한다. {@link Tasks#setMonitor(TaskMonitor)} 로 등록한다.
+ * <p>
+ * 모든 시각은 {@link System#nanoTime()} 기준이며, tag 는 {@link DelayedTask#tag(String)} 로 지정된 값으로 null 일 수 있다.
+ * 메소드는 작업 스레드와 UI 스레드에서 호출되므로 빠르게 반환되어야 한다.
+ */
+public abstract class TaskMonitor {
+    /**
+     * 아무것도 하지 않는 기본 monitor. 등록되어 있으면 시각을 재지 않는다.
+     */
+    public static final TaskMonitor NONE = new TaskMonitor() {
+    };
+
+    /**
+     * 작업이 실행되기 시작했다.
+     *
+     * @param enqueuedAt 실행이 요청된 시각
+     */
+    public void onStart(String tag, long enqueuedAt, long startedAt) {
+    }
+
+    /**
+     * 작업이 결과를 반환했다.
+     */
+    public void onEnd(String tag, long startedAt, long endedAt) {
+    }
+
+    /**
+     * 작업이 에러를 던졌다.
+     */
+    public void onError(String tag, long startedAt, long endedAt, Throwable t) {
+    }
+
+    /**
+     * 작업이 취소되었다.
+     */
+    public void onCancel(String tag, long cancelledAt) {
+    }
+
+    /**
+     * 작업이 실패하여 delayNanos 뒤에 attempt + 1 번째 실행이 예약되었다.
+     */
+    public void onRetry(String tag, int attempt, long delayNanos) {
+    }
+
+    /**
+     * 작업이 {@link RateLimiter} 나 {@link ConcurrencyLimiter} 의 허가를 기다렸다가 받았다.
+     *
+     * @param parkedAt 허가를 기다리기 시작한 시각
+     */
+    public void onThrottle(String tag, long parkedAt, long acquiredAt) {
+    }
+
+    /**
+     * 결과 또는 에러가 리스너에 전달되기 시작했다.
+     *
+     * @param completedAt 작업이 끝난 시각
+     */
+    public void onDeliver(String tag, long completedAt, long deliveredAt) {
+    }
+}
@@ -1,17 +1,126 @@
 package mj.android.utils.task;
 
+import android.support.annotation.NonNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * tag 로 작업을 관리하며, 우선순위 별로 작업을 대기시키고 동시에 실행되는 작업 수를 제한한다.
+ * <p>
+ * {@link #enqueue(String, Task, int)} 로 얻은 DelayedTask 를 {@link DelayedTask#execute()} 하면,
+ * 실행 슬롯이 빌 때 까지 우선순위가 높은 작업부터 대기한다.
+ * 실행 슬롯은 작업이 결과, 에러, 취소 중 하나로 끝날 때 반환되므로, 비동기 작업이나 허가 또는 재시도를 기다리는 작업도 슬롯을 차지한다.
+ * <p>
+ * 대기열이 가득 차거나 Scheduler 가 실행을 거부하여 버려진 작업에는 {@link RejectedExecutionException} 과 atLast 가 전달되고,
+ * {@link TaskMonitor} 에는 그 작업의 tag 로 알려진다.
+ */
 public class TaskQueue {
+    public static final int PRIORITY_HIGH = 0;
+    public static final int PRIORITY_NORMAL = 1;
+    public static final int PRIORITY_LOW = 2;
+    private static final int PRIORITY_COUNT = 3;
+
+    /**
+     * 대기열이 가득 차면 가장 오래 기다린 작업을 취소한다.
+     */
+    public static final int OVERFLOW_DROP_OLDEST = 0;
+    /**
+     * 대기열이 가득 차면 가장 낮은 우선순위의 작업 중 가장 오래 기다린 작업을 취소한다.
+     * 새 작업의 우선순위가 더 낮다면 새 작업을 취소한다.
+     */
+    public static final int OVERFLOW_DROP_LOWEST = 1;
+
     private final Map<String, DelayedTask> TASK_MAP;
 
+    private final Object lock = new Object();
+    private final Map<String, Flight<?>> flights = new HashMap<>();
+    private boolean singleFlight = false;
+    private final ArrayDeque<Job>[] lanes;
+    private Scheduler scheduler;
+    private int maxConcurrency = Integer.MAX_VALUE;
+    private int maxBacklog = Integer.MAX_VALUE;
+    private int overflowPolicy = OVERFLOW_DROP_OLDEST;
+
+    private int inFlight = 0;
+    private int backlog = 0;
+    private long startedCount = 0;
+    private long droppedCount = 0;
+    private long totalWaitNanos = 0;
+    private long maxWaitNanos = 0;
+
     public TaskQueue() {
-        TASK_MAP = new ConcurrentHashMap<>();
+        this(new ConcurrentHashMap<String, DelayedTask>());
     }
 
     public TaskQueue(Map<String, DelayedTask> taskMap) {
         TASK_MAP = new ConcurrentHashMap<>(taskMap);
+        //noinspection unchecked
+        lanes = new ArrayDeque[PRIORITY_COUNT];
+        for (int i = 0; i < PRIORITY_COUNT; i++) {
+            lanes[i] = new ArrayDeque<>();
+        }
+    }
+
+    /**
+     * 작업을 실행할 Scheduler 를 지정한다. 기본값은 {@link Schedulers#background()} 이다.
+     */
+    public TaskQueue scheduler(@NonNull Scheduler scheduler) {
+        synchronized (lock) {
+            this.scheduler = scheduler;
+        }
+        return this;
+    }
+
+    /**
+     * 동시에 실행될 수 있는 최대 작업 수를 지정한다.
+     */
+    public TaskQueue maxConcurrency(int maxConcurrency) {
+        if (maxConcurrency < 1)
+            throw new IllegalArgumentException("maxConcurrency < 1");
+        synchronized (lock) {
+            this.maxConcurrency = maxConcurrency;
+        }
+        pump();
+        return this;
+    }
+
+    /**
+     * 실행을 기다리는 작업의 최대 수와, 이를 넘었을 때 취소할 작업을 고르는 방식을 지정한다.
+     *
+     * @param overflowPolicy {@link #OVERFLOW_DROP_OLDEST} 또는 {@link #OVERFLOW_DROP_LOWEST}
+     */
+    public TaskQueue maxBacklog(int maxBacklog, int overflowPolicy) {
+        if (maxBacklog < 0)
+            throw new IllegalArgumentException("maxBacklog < 0");
+        synchronized (lock) {
+            this.maxBacklog = maxBacklog;
+            this.overflowPolicy = overflowPolicy;
+        }
+        return this;
+    }
+
+    /**
+     * 같은 tag 의 작업이 이미 실행중이면, 새 작업을 실행하지 않고 실행중인 작업의 결과를 함께 받도록 한다.
+     * <p>
+     * 실행중인 작업은 그 결과를 기다리는 모든 DelayedTask 가 취소되었을 때만 취소된다.
+     * {@link #cancel(String)} 이나 {@link #cancelAll()} 로 취소하면, 결과를 기다리던 DelayedTask 에는
+     * {@link CancellationException} 과 atLast 가 전달된다.
+     */
+    public TaskQueue singleFlight(boolean enabled) {
+        synchronized (lock) {
+            this.singleFlight = enabled;
+        }
+        return this;
     }
 
     public boolean exist(String tag) {
@@ -19,6 +128,34 @@ public class TaskQueue {
     }
 
     public <T> DelayedTask<T> enqueue(final String tag, final Task<T> task) {
+        return enqueue(tag, task, PRIORITY_NORMAL);
+    }
+
+    /**
+     * @param priority {@link #PRIORITY_HIGH}, {@link #PRIORITY_NORMAL}, {@link #PRIORITY_LOW} 중 하나
+     */
+    public <T> DelayedTask<T> enqueue(final String tag, final Task<T> task, int priority) {
+        if (priority < 0 || priority >= PRIORITY_COUNT)
+            throw new IllegalArgumentException("unknown priority : " + priority);
+
+        if (tag != null) {
+            synchronized (lock) {
+                if (singleFlight) {
+                    //noinspection unchecked
+                    Flight<T> flight = (Flight<T>) flights.get(tag);
+                    if (flight == null) {
+                        flight = new Flight<>(tag, task, priority);
+                        flights.put(tag, flight);
+                    }
+                    return flight.subscribe();
+                }
+            }
+        }
+
+        return queued(tag, task, priority);
+    }
+
+    private <T> DelayedTask<T> queued(final String tag, final Task<T> task, int priority) {
         Task<T> task1 = task.map(new Func<T, T>() {
 
             @Override
@@ -30,6 +167,7 @@ public class TaskQueue {
         });
 
         DelayedTask<T> delayedTask = task1.delayed();
+        delayedTask.tag(tag).subscribeOn(new Entry(tag, priority, delayedTask));
 
         addTask(tag, delayedTask);
 
@@ -47,15 +185,32 @@ public class TaskQueue {
     }
 
     public void cancelAll() {
+        List<Job> discarded = new ArrayList<>();
+        List<Flight<?>> aborted;
+        synchronized (lock) {
+            for (ArrayDeque<Job> lane : lanes) {
+                discarded.addAll(lane);
+                lane.clear();
+            }
+            backlog = 0;
+            aborted = new ArrayList<>(flights.values());
+            flights.clear();
+        }
+        for (Job job : discarded) {
+            job.discard();
+        }
         for (DelayedTask<?> task : TASK_MAP.values()) {
             task.cancel();
         }
         TASK_MAP.clear();
+        for (Flight<?> flight : aborted) {
+            flight.abort();
+        }
     }
 
     public void cancel(String tag) {
         if (TASK_MAP.containsKey(tag))
-            TASK_MAP.remove(tag).cancel();
+            cancelTask(TASK_MAP.remove(tag));
     }
 
 
@@ -63,14 +218,603 @@ public class TaskQueue {
         for (String tag : TASK_MAP.keySet()) {
             DelayedTask<?> task = TASK_MAP.get(tag);
             if (filter.match(task, tag)) {
-                task.cancel();
+                cancelTask(task);
                 TASK_MAP.remove(tag);
             }
         }
     }
 
+    /**
+     * 실행을 기다리고 있는 작업의 수
+     */
+    public int getQueueDepth() {
+        synchronized (lock) {
+            return backlog;
+        }
+    }
+
+    /**
+     * 실행중인 작업의 수
+     */
+    public int getInFlightCount() {
+        synchronized (lock) {
+            return inFlight;
+        }
+    }
+
+    /**
+     * 대기열이 가득 차 취소된 작업의 수
+     */
+    public long getDroppedCount() {
+        synchronized (lock) {
+            return droppedCount;
+        }
+    }
+
+    /**
+     * 실행된 작업이 대기열에서 기다린 평균 시간
+     */
+    public long getAverageWaitTime(TimeUnit unit) {
+        synchronized (lock) {
+            return startedCount == 0 ? 0 : unit.convert(totalWaitNanos / startedCount, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 실행된 작업이 대기열에서 기다린 가장 긴 시간
+     */
+    public long getMaxWaitTime(TimeUnit unit) {
+        synchronized (lock) {
+            return unit.convert(maxWaitNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void cancelTask(DelayedTask<?> task) {
+        if (task == null)
+            return;
+        List<Job> discarded = null;
+        Flight<?> aborted = null;
+        synchronized (lock) {
+            Iterator<Flight<?>> flightIterator = flights.values().iterator();
+            while (flightIterator.hasNext()) {
+                Flight<?> flight = flightIterator.next();
+                if (flight.task == task) {
+                    flightIterator.remove();
+                    aborted = flight;
+                }
+            }
+            for (ArrayDeque<Job> lane : lanes) {
+                Iterator<Job> iterator = lane.iterator();
+                while (iterator.hasNext()) {
+                    Job job = iterator.next();
+                    if (job.entry.task == task) {
+                        iterator.remove();
+                        backlog--;
+                        if (discarded == null)
+                            discarded = new ArrayList<>(1);
+                        discarded.add(job);
+                    }
+                }
+            }
+        }
+        task.cancel();
+        if (discarded != null) {
+            for (Job job : discarded) {
+                job.discard();
+            }
+        }
+        if (aborted != null)
+            aborted.abort();
+    }
+
+    private void submit(Entry entry, Runnable runnable) {
+        final Job job = new Job(entry, runnable);
+        if (runnable instanceof TrackedRunnable && !job.track()) {
+            resume(job);
+            return;
+        }
+
+        Job dropped = null;
+        boolean start = false;
+
+        synchronized (lock) {
+            if (inFlight < maxConcurrency) {
+                inFlight++;
+                job.slot = true;
+                start = true;
+            } else {
+                if (backlog >= maxBacklog) {
+                    dropped = selectVictim(job);
+                    droppedCount++;
+                    if (dropped != job) {
+                        lanes[dropped.entry.priority].remove(dropped);
+                        backlog--;
+                    }
+                }
+                if (dropped != job) {
+                    lanes[entry.priority].addLast(job);
+                    backlog++;
+                }
+            }
+        }
+
+        if (dropped != null)
+            drop(dropped, new RejectedExecutionException("backlog full : " + dropped.entry.tag));
+
+        if (start)
+            start(job);
+    }
+
+    /**
+     * 이미 슬롯을 차지한 실행이 허가나 재시도를 기다린 뒤 이어지는 것이므로, 대기열을 거치지 않고 실행한다.
+     */
+    private void resume(Job job) {
+        try {
+            scheduler().execute(job.runnable);
+        } catch (RejectedExecutionException e) {
+            drop(job, e);
+        }
+    }
+
+    private Job selectVictim(Job incoming) {
+        if (overflowPolicy == OVERFLOW_DROP_LOWEST) {
+            for (int i = PRIORITY_COUNT - 1; i >= 0; i--) {
+                if (!lanes[i].isEmpty())
+                    return incoming.entry.priority > i ? incoming : lanes[i].peekFirst();
+            }
+            return incoming;
+        }
+
+        Job oldest = incoming;
+        for (ArrayDeque<Job> lane : lanes) {
+            Job head = lane.peekFirst();
+            if (head != null && head.enqueuedAt - oldest.enqueuedAt < 0)
+                oldest = head;
+        }
+        return oldest;
+    }
+
+    /**
+     * 실행하지 못한 작업을 버리고, 리스너와 {@link TaskMonitor} 에 reason 을 알린다.
+     */
+    private void drop(Job job, RejectedExecutionException reason) {
+        Entry entry = job.entry;
+        if (entry.tag != null && TASK_MAP.get(entry.tag) == entry.task)
+            TASK_MAP.remove(entry.tag);
+        job.reject(reason);
+    }
+
+    private void start(Job job) {
+        long wait = System.nanoTime() - job.enqueuedAt;
+        synchronized (lock) {
+            startedCount++;
+            totalWaitNanos += wait;
+            if (wait > maxWaitNanos)
+                maxWaitNanos = wait;
+        }
+
+        try {
+            scheduler().execute(job);
+        } catch (RejectedExecutionException e) {
+            synchronized (lock) {
+                droppedCount++;
+            }
+            drop(job, e);
+            finish(job);
+        }
+    }
+
+    /**
+     * job 이 차지한 슬롯을 반환한다. 여러 번 호출되어도 한 번만 반환한다.
+     */
+    private void finish(Job job) {
+        synchronized (lock) {
+            if (!job.slot)
+                return;
+            job.slot = false;
+            inFlight--;
+        }
+        pump();
+    }
+
+    /**
+     * 실행 슬롯이 남아있는 동안, 우선순위가 높은 작업 부터 실행한다.
+     */
+    private void pump() {
+        List<Job> next = null;
+        synchronized (lock) {
+            while (inFlight < maxConcurrency && backlog > 0) {
+                Job job = null;
+                for (ArrayDeque<Job> lane : lanes) {
+                    if ((job = lane.pollFirst()) != null)
+                        break;
+                }
+                if (job == null)
+                    break;
+
+                backlog--;
+                inFlight++;
+                job.slot = true;
+                if (next == null)
+                    next = new ArrayList<>(1);
+                next.add(job);
+            }
+        }
+
+        if (next != null) {
+            for (Job job : next) {
+                start(job);
+            }
+        }
+    }
+
+    private Scheduler scheduler() {
+        Scheduler s;
+        synchronized (lock) {
+            s = scheduler;
+        }
+        return s != null ? s : Schedulers.background();
+    }
+
 
     public interface TaskFilter {
         boolean match(DelayedTask<?> task, String tag);
     }
+
+    /**
+     * 같은 tag 로 요청된 작업들이 공유하는 하나의 실행. 실제 작업의 결과를 각 구독자에게 나누어 전달한다.
+     */
+    private class Flight<T> implements ResultListener<T>, ErrorListener {
+        final String tag;
+        final Task<T> source;
+        final int priority;
+        final DelayedTask<T> task;
+        final List<Subscriber> subscribers = new ArrayList<>(2);
+        boolean started, done, cancelled, hasResult;
+        T result;
+        Throwable error;
+
+        Flight(String tag, Task<T> source, int priority) {
+            this.tag = tag;
+            this.source = source;
+            this.priority = priority;
+            this.task = queued(tag, source, priority);
+            task.observeOn(Schedulers.immediate()).result(this).error(this);
+        }
+
+        Subscriber subscribe() {
+            return new Subscriber();
+        }
+
+        @Override
+        public void onResult(T t) {
+            complete(t, null, true);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            if (TASK_MAP.get(tag) == task)
+                TASK_MAP.remove(tag);
+            complete(null, t, false);
+        }
+
+        /**
+         * queue 에서 tag 가 취소되어 작업이 결과 없이 끝났다. 기다리던 구독자와 이후에 실행되는 구독자에게 취소를 알린다.
+         */
+        void abort() {
+            complete(null, new CancellationException("cancelled : " + tag), false);
+        }
+
+        private void complete(T t, Throwable e, boolean success) {
+            List<Subscriber> snapshot;
+            synchronized (lock) {
+                if (done)
+                    return;
+                done = true;
+                hasResult = success;
+                result = t;
+                error = e;
+                if (flights.get(tag) == this)
+                    flights.remove(tag);
+                snapshot = new ArrayList<>(subscribers);
+                subscribers.clear();
+            }
+
+            for (Subscriber subscriber : snapshot) {
+                subscriber.deliver();
+            }
+        }
+
+        private class Subscriber implements DelayedTask<T> {
+            private ResultListener<T> resultListener;
+            private ErrorListener errorListener;
+            private Runnable atLastListener;
+            private Scheduler subscribeScheduler;
+            private Scheduler observeScheduler;
+            private boolean executed, canceled;
+            private volatile Cancelable pending;
+
+            @Override
+            public DelayedTask<T> result(ResultListener<T> r) {
+                this.resultListener = r;
+                return this;
+            }
+
+            @Override
+            public DelayedTask<T> error(ErrorListener e) {
+                this.errorListener = e;
+                return this;
+            }
+
+            @Override
+            public DelayedTask<T> atLast(Runnable r) {
+                this.atLastListener = r;
+                return this;
+            }
+
+            /**
+             * 실제 작업은 queue 의 tag 로 보고된다.
+             */
+            @Override
+            public DelayedTask<T> tag(String tag) {
+                return this;
+            }
+
+            /**
+             * 실제 작업은 queue 의 대기열을 거쳐 실행되므로, {@link #executeAfter(long, TimeUnit)} 의 지연에만 사용된다.
+             */
+            @Override
+            public DelayedTask<T> subscribeOn(@NonNull Scheduler scheduler) {
+                this.subscribeScheduler = scheduler;
+                return this;
+            }
+
+            @Override
+            public DelayedTask<T> observeOn(@NonNull Scheduler scheduler) {
+                this.observeScheduler = scheduler;
+                return this;
+            }
+
+            @Override
+            public DelayedTask<T> clone() {
+                return task.clone().observeOn(observeScheduler != null ? observeScheduler : Schedulers.delivery())
+                        .result(resultListener).error(errorListener).atLast(atLastListener);
+            }
+
+            @Override
+            public void execute() {
+                execute(null);
+            }
+
+            @Override
+            public void execute(Executor executor) {
+                boolean start = false, completed = false, rejoin = false;
+                synchronized (lock) {
+                    if (executed || canceled)
+                        return;
+                    executed = true;
+
+                    if (cancelled) {
+                        rejoin = true;
+                    } else if (done) {
+                        completed = true;
+                    } else {
+                        subscribers.add(this);
+                        start = !started;
+                        started = true;
+                    }
+                }
+
+                if (rejoin) {
+                    rejoin(executor);
+                } else if (completed) {
+                    deliver();
+                } else if (start) {
+                    if (executor != null)
+                        task.execute(executor);
+                    else
+                        task.execute();
+                }
+            }
+
+            /**
+             * 마지막 구독자가 취소하여 flight 가 끝난 뒤에 실행되면, 같은 작업을 다시 요청하여 새 flight 에 참여한다.
+             */
+            private void rejoin(Executor executor) {
+                DelayedTask<T> next = enqueue(tag, source, priority)
+                        .result(resultListener).error(errorListener).atLast(atLastListener);
+                if (observeScheduler != null)
+                    next.observeOn(observeScheduler);
+                pending = next;
+
+                boolean c;
+                synchronized (lock) {
+                    c = canceled;
+                }
+                if (c) {
+                    next.cancel();
+                    return;
+                }
+
+                if (executor != null)
+                    next.execute(executor);
+                else
+                    next.execute();
+            }
+
+            /**
+             * delay 뒤에 이 flight 에 참여한다.
+             */
+            @Override
+            public void executeAfter(long delay, @NonNull TimeUnit unit) {
+                Scheduler scheduler = subscribeScheduler != null ? subscribeScheduler : Schedulers.background();
+                pending = scheduler.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        execute();
+                    }
+                }, delay, unit);
+            }
+
+            /**
+             * 반복 실행은 한 번의 flight 를 공유할 수 없으므로, {@link #clone()} 으로 만든 독립된 DelayedTask 로 실행한다.
+             */
+            @Override
+            public void executeAtFixedRate(long initialDelay, long period, @NonNull TimeUnit unit) {
+                periodic().executeAtFixedRate(initialDelay, period, unit);
+            }
+
+            @Override
+            public void executeWithFixedDelay(long initialDelay, long delay, @NonNull TimeUnit unit) {
+                periodic().executeWithFixedDelay(initialDelay, delay, unit);
+            }
+
+            private DelayedTask<T> periodic() {
+                DelayedTask<T> periodic = clone();
+                pending = periodic;
+                return periodic;
+            }
+
+            @Override
+            public boolean cancel() {
+                Cancelable p = pending;
+                if (p != null)
+                    p.cancel();
+
+                boolean cancelTask;
+                synchronized (lock) {
+                    if (canceled)
+                        return false;
+                    canceled = true;
+                    cancelTask = subscribers.remove(this) && subscribers.isEmpty() && !done;
+                    if (cancelTask) {
+                        cancelled = true;
+                        if (flights.get(tag) == Flight.this)
+                            flights.remove(tag);
+                    }
+                }
+
+                if (cancelTask) {
+                    if (TASK_MAP.get(tag) == task)
+                        TASK_MAP.remove(tag);
+                    cancelTask(task);
+                }
+                return true;
+            }
+
+            void deliver() {
+                Delivery<T> delivery = Delivery.obtain(resultListener, errorListener, atLastListener);
+                if (hasResult)
+                    delivery.result(result);
+                else
+                    delivery.error(error);
+                delivery.post(observeScheduler != null ? observeScheduler : Schedulers.delivery());
+            }
+        }
+    }
+
+    /**
+     * DelayedTask 의 Scheduler 로 지정되어, 실행 요청을 우선순위에 맞는 대기열로 넘긴다.
+     */
+    private class Entry implements Scheduler {
+        final String tag;
+        final int priority;
+        final DelayedTask<?> task;
+
+        Entry(String tag, int priority, DelayedTask<?> task) {
+            this.tag = tag;
+            this.priority = priority;
+            this.task = task;
+        }
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            submit(this, command);
+        }
+
+        @Override
+        public Cancelable schedule(@NonNull final Runnable r, long delay, @NonNull TimeUnit unit) {
+            return scheduler().schedule(new Runnable() {
+                @Override
+                public void run() {
+                    submit(Entry.this, r);
+                }
+            }, delay, unit);
+        }
+
+        @Override
+        public long now(@NonNull TimeUnit unit) {
+            return scheduler().now(unit);
+        }
+    }
+
+    /**
+     * 한 번의 실행 요청. 실행 슬롯을 얻으면 실제 Scheduler 에서 실행되고, 실행이 끝나면 슬롯을 반환한다.
+     * {@link TrackedRunnable} 은 run() 이 반환된 뒤에도 실행이 끝났다고 알릴 때 까지 슬롯을 차지한다.
+     */
+    private class Job implements Runnable {
+        final Entry entry;
+        final Runnable runnable;
+        final long enqueuedAt = System.nanoTime();
+        /**
+         * 실행 슬롯을 차지하고 있는지 여부. lock 으로 보호된다.
+         */
+        boolean slot;
+        private boolean tracked;
+
+        Job(Entry entry, Runnable runnable) {
+            this.entry = entry;
+            this.runnable = runnable;
+        }
+
+        /**
+         * 실행이 끝나면 슬롯을 반환하도록 한다.
+         *
+         * @return 이미 슬롯을 차지한 실행이 이어지는 것이면 false
+         */
+        boolean track() {
+            tracked = ((TrackedRunnable) runnable).track(new Runnable() {
+                @Override
+                public void run() {
+                    finish(Job.this);
+                }
+            });
+            return tracked;
+        }
+
+        @Override
+        public void run() {
+            if (tracked) {
+                runnable.run();
+                return;
+            }
+
+            try {
+                runnable.run();
+            } finally {
+                finish(this);
+            }
+        }
+
+        /**
+         * 실행되지 않고 버려질 때 호출된다. 실행 요청에 취소를 전달하여, 넘겨받은 {@link Limiter} 의 허가 등을 반납하도록 한다.
+         */
+        void discard() {
+            Tasks.sendCancelToCancelable(runnable);
+        }
+
+        /**
+         * 실행하지 못하고 버려질 때 호출된다. 실행 요청이 리스너에 reason 을 전달하도록 한다.
+         * {@link TaskMonitor} 에는 {@link TrackedRunnable} 이면 onError 로, 아니면 취소되므로 onCancel 로 알려진다.
+         */
+        void reject(RejectedExecutionException reason) {
+            if (!(runnable instanceof TrackedRunnable)) {
+                entry.task.cancel();
+                discard();
+                return;
+            }
+
+            ((TrackedRunnable) runnable).reject(reason);
+        }
+    }
 }
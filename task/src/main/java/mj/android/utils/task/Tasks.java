@@ -1,33 +1,48 @@
 package mj.android.utils.task;
 
-import android.os.AsyncTask;
-import android.os.Handler;
-import android.os.Looper;
 import android.support.annotation.NonNull;
 import android.support.annotation.WorkerThread;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
-import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
-import java.util.concurrent.FutureTask;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.TimeoutException;
 
 public final class Tasks {
-    static final Executor EXECUTOR = AsyncTask.THREAD_POOL_EXECUTOR;
-    public static final Executor UI_THREAD_EXECUTOR = new Executor() {
-        final Handler handler = new Handler(Looper.getMainLooper());
+    /**
+     * main looper 에서 작업을 실행하는 Executor. {@link Schedulers#mainThread()} 와 같다.
+     */
+    public static final Executor UI_THREAD_EXECUTOR = Schedulers.mainThread();
 
-        @Override
-        public void execute(@NonNull Runnable command) {
-            handler.post(command);
-        }
-    };
+    private static volatile TaskMonitor monitor = TaskMonitor.NONE;
 
     private Tasks() {
     }
 
+    /**
+     * 작업의 시작, 끝, 에러, 취소, 전달 시점을 보고받을 monitor 를 등록한다. null 이면 {@link TaskMonitor#NONE} 을 사용한다.
+     */
+    public static void setMonitor(TaskMonitor m) {
+        monitor = m != null ? m : TaskMonitor.NONE;
+    }
+
+    static TaskMonitor monitor() {
+        return monitor;
+    }
+
+    /**
+     * 같은 UI 스레드 턴에 끝난 작업들의 결과를 하나의 메시지로 묶어 전달할지 여부를 설정한다.
+     * <p>
+     * 목록 화면 처럼 많은 작업이 한꺼번에 끝나는 경우, main looper 에 쌓이는 메시지 수를 줄인다.
+     */
+    public static void setBatchUiDelivery(boolean enabled) {
+        Delivery.setBatchEnabled(enabled);
+    }
+
     public static boolean cancelTask(DelayedTask task) {
         return task != null && task.cancel();
     }
@@ -39,10 +54,34 @@ public final class Tasks {
     }
 
     /**
-     * 주어진 작업을 실행한다.
+     * 주어진 작업을 {@link Schedulers#background()} 에서 실행한다.
      */
     public static void execute(Runnable r) {
-        EXECUTOR.execute(r);
+        Schedulers.background().execute(monitor == TaskMonitor.NONE ? r : new TracedRunnable(r, System.nanoTime()));
+    }
+
+    private static class TracedRunnable implements Runnable {
+        private final Runnable r;
+        private final long enqueuedAt;
+
+        TracedRunnable(Runnable r, long enqueuedAt) {
+            this.r = r;
+            this.enqueuedAt = enqueuedAt;
+        }
+
+        @Override
+        public void run() {
+            TaskMonitor m = monitor;
+            long startedAt = System.nanoTime();
+            m.onStart(null, enqueuedAt, startedAt);
+            try {
+                r.run();
+                m.onEnd(null, startedAt, System.nanoTime());
+            } catch (RuntimeException | Error e) {
+                m.onError(null, startedAt, System.nanoTime(), e);
+                throw e;
+            }
+        }
     }
 
 
@@ -54,27 +93,64 @@ public final class Tasks {
     }
 
     /**
-     * Task 로 부터 FutureTask 를 생성하여,  Task 를 병렬로 실행 할 수 있게한다.
+     * {@link Completion} 으로 끝나는 작업을 Task 로 만든다.
+     * <p>
+     * 이 Task 를 {@link Task#delayed()} 나 TaskQueue 로 실행하면 작업을 시작한 뒤 스레드를 놓으므로,
+     * 많은 수의 I/O 작업을 적은 스레드로 동시에 진행할 수 있다. map, timeout, limited 와 바깥쪽의 retry 로 감싸도 마찬가지이다.
+     * {@link Task#get()} 이나 다른 Task 의 하위 작업으로 실행되면 끝날 때 까지 실행중인 스레드에서 기다린다.
+     */
+    public static <T> Task<T> fromAsync(AsyncCallable<T> c) {
+        return new BaseTask<>(new AsyncBridge<>(c));
+    }
+
+    /**
+     * Task 를 {@link Task#delayed()} 로 실행하고 결과를 {@link Completion} 으로 알리는 작업을 만든다.
+     * 작업이 취소되면 실행중인 Task 도 취소된다.
      */
-    private static <T> FutureTask<T> futureTask(final Task<T> task) {
-        return new FutureTask<>(new Callable<T>() {
+    public static <T> AsyncCallable<T> toAsync(final Task<T> task) {
+        return new AsyncCallable<T>() {
             @Override
-            public T call() throws Exception {
-                try {
-                    return task.get();
-                } catch (Throwable throwable) {
-                    if (throwable instanceof Exception)
-                        throw (Exception) throwable;
-                    else
-                        throw new Exception(throwable);
-                }
+            public void call(@NonNull final Completion<T> completion) {
+                DelayedTask<T> delayedTask = task.delayed()
+                        .observeOn(Schedulers.immediate())
+                        .result(new ResultListener<T>() {
+                            @Override
+                            public void onResult(T result) {
+                                completion.complete(result);
+                            }
+                        })
+                        .error(new ErrorListener() {
+                            @Override
+                            public void onError(Throwable t) {
+                                completion.fail(t);
+                            }
+                        });
+                completion.onCancel(delayedTask);
+                delayedTask.execute();
             }
-        });
+        };
+    }
+
+    /**
+     * 결과를 {@link TaskCache#getDefault()} 에 보관하고, policy 에 따라 다시 사용하는 Task 를 반환한다.
+     */
+    public static <T> Task<T> cached(String key, Task<T> task, CachePolicy policy) {
+        return cached(key, task, policy, TaskCache.getDefault());
     }
 
+    /**
+     * 결과를 주어진 캐시에 보관하고, policy 에 따라 다시 사용하는 Task 를 반환한다.
+     * <p>
+     * ttl 이 지나 stale-while-revalidate 구간에 있는 결과는 그대로 반환하며, 결과의 갱신은 DelayedTask 로 백그라운드에서 실행된다.
+     */
+    public static <T> Task<T> cached(String key, Task<T> task, CachePolicy policy, TaskCache cache) {
+        return newTask(new TaskCache.CachedCallable<>(key, task, policy, cache));
+    }
 
     public static final class Parallel {
 
+        private static final Object UNFINISHED = new Object();
+
         private Parallel() {
         }
 
@@ -98,7 +174,7 @@ public final class Tasks {
          * <p>
          * Task 의 Type 은 같아야 한다.
          * <p>
-         * 결과로 얻어지는 List 에는 null 이 포함될 수 있다.
+         * 에러가 발생하면 나머지 Task 를 실행하지 않고 그 에러를 던진다.
          */
         public static <T, Q extends Task<T>> Task<List<T>> serialTaskTyped(final Collection<Q> collection) {
             return new SerialTaskImpl(collection.toArray(new Task[collection.size()])).map(Parallel.<T>resultsTypeMapper());
@@ -110,7 +186,7 @@ public final class Tasks {
          * <p>
          * Task 의 Type 은 같아야 한다.
          * <p>
-         * 결과로 얻어지는 List 에는 null 이 포함될 수 있다.
+         * 에러가 발생하면 나머지 Task 를 실행하지 않고 그 에러를 던진다.
          */
         public static <T, Q extends Collection<T>, R extends Task<Q>> Task<List<T>> serialTaskTypedCollection(final Collection<R> collection) {
             return new SerialTaskImpl(collection.toArray(new Task[collection.size()])).map(Parallel.<T>resultsTypeMapper());
@@ -151,10 +227,12 @@ public final class Tasks {
          * <p>
          * Task 의 Type 은 같아야 한다.
          * <p>
-         * 결과로 얻어지는 List 에는 null 이 포함될 수 있다.
+         * 하나라도 에러가 발생하면 나머지 Task 를 취소하고 그 에러를 던진다.
+         *
+         * @see #all(Collection)
          */
         public static <T, Q extends Task<T>> Task<List<T>> parallelTaskTyped(final Collection<Q> collection) {
-            return parallelTask(collection.toArray(new Task[collection.size()])).map(Parallel.<T>resultsTypeMapper());
+            return all(collection);
         }
 
         /**
@@ -162,42 +240,57 @@ public final class Tasks {
          * <p>
          * Task 의 Type 은 같아야 한다.
          * <p>
-         * 결과로 얻어지는 List 에는 null 이 포함될 수 있다.
+         * 에러가 발생하면 모든 Task 가 끝난 뒤 그 에러를 던진다.
          */
         public static <T, Q extends Collection<T>, R extends Task<Q>> Task<List<T>> parallelTaskTypedCollection(final Collection<R> collection) {
             return parallelTask(collection.toArray(new Task[collection.size()])).map(Parallel.<T>resultsTypeMapper());
         }
 
+        /**
+         * 주어진 Tasks 를 threadCount 개의 구간으로 균등하게 나누어 병렬로 실행하는 Task 를 반환한다.
+         * <p>
+         * {@link #batchTask(Collection, int)} 와 같다.
+         */
         public static <T, Q extends Collection<T>, R extends Task<Q>> Task<List<T>> parallelTaskTypedCollection(final Collection<R> collection, int threadCount) {
-            if (threadCount < 2) {
-                return serialTaskTypedCollection(collection);
-            }
-            final int N = collection.size();
-            if (N < threadCount) {
-                return parallelTaskTypedCollection(collection);
-            } else {
-                ArrayList<R> list = new ArrayList<>();
-                list.addAll(collection);
-
-                ArrayList<Task<List<T>>> list1 = new ArrayList<>();
-                int div = N / threadCount;
-                for (int i = 0; i < threadCount; i++) {
-                    int start = i * div, end = (i + 1) * div;
-                    end = N > end ? end : N;
-                    Task<List<T>> t = subTask(list.subList(start, end));
-                    list1.add(t);
-                }
-                return parallelTaskTypedCollection(list1);
-            }
+            return batchTask(collection, threadCount);
+        }
 
+        /**
+         * 주어진 Tasks 를 partitionCount 개의 구간으로 균등하게 나누고, 각 구간을 병렬로 실행하는 Task 를 반환한다.
+         * <p>
+         * 구간의 크기는 많아야 1 차이가 나며, 모든 Task 가 실행된다. 결과는 주어진 순서대로 합쳐진다.
+         * Task 에서 에러가 발생하면 나머지 Task 의 실행을 멈추고, 해당 에러를 던진다.
+         */
+        public static <T, Q extends Collection<T>, R extends Task<Q>> Task<List<T>> batchTask(final Collection<R> collection, int partitionCount) {
+            Task[] tasks = collection.toArray(new Task[collection.size()]);
+            int partitions = Math.max(1, Math.min(partitionCount, tasks.length));
+            return new BatchTaskImpl<>(tasks, partitions, 0);
+        }
 
+        /**
+         * 주어진 Tasks 를 chunkSize 개씩 묶어, 작업 스레드가 끝나는 대로 다음 묶음을 가져가 실행하는 Task 를 반환한다.
+         * <p>
+         * 실행 시간이 고르지 않은 Task 가 많을 때, 느린 구간 하나가 전체 완료 시간을 결정하지 않도록 한다.
+         * 결과는 주어진 순서대로 합쳐지며, 에러 처리는 {@link #batchTask(Collection, int)} 와 같다.
+         */
+        public static <T, Q extends Collection<T>, R extends Task<Q>> Task<List<T>> batchTaskDynamic(final Collection<R> collection, int chunkSize) {
+            Task[] tasks = collection.toArray(new Task[collection.size()]);
+            return new BatchTaskImpl<>(tasks, 0, Math.max(1, chunkSize));
         }
 
         private static <T> Func<Object[], List<T>> resultsTypeMapper() {
             return new Func<Object[], List<T>>() {
                 @Override
                 public List<T> func(Object[] objects) throws Throwable {
-                    ArrayList<T> list = new ArrayList<>();
+                    int size = 0;
+                    for (Object o : objects) {
+                        // parallelTask 는 에러를 결과 자리에 담는다.
+                        if (o instanceof ExecutionException)
+                            throw ((ExecutionException) o).getCause();
+                        size += ((Collection<?>) o).size();
+                    }
+
+                    ArrayList<T> list = new ArrayList<>(size);
                     for (Object o : objects) {
                         //noinspection unchecked
                         list.addAll((List<T>) o);
@@ -207,18 +300,23 @@ public final class Tasks {
             };
         }
 
-        private static <T, Q extends Collection<T>, R extends Task<Q>> Task<List<T>> subTask(final Collection<R> collection) {
-            return newTask(new Callable2<List<T>>() {
-                @Override
-                public List<T> call() throws Throwable {
-                    List<T> results = new ArrayList<>();
-
-                    for (Task<Q> request : collection)
-                        results.addAll(request.get());
+        /**
+         * 병렬적으로 주어진 Tasks 를 실행하며, 각 결과를 끝나는 순서대로 listener 에 전달하는 Task 를 반환한다.
+         */
+        public static <T> Task<Void> parallelStream(final Collection<? extends Task<T>> collection, StreamListener<T> listener) {
+            return parallelStream(collection, false, 0, listener);
+        }
 
-                    return results;
-                }
-            });
+        /**
+         * 병렬적으로 주어진 Tasks 를 실행하며, 각 결과를 끝나는 대로 {@link Schedulers#delivery()} 에서 listener 에 전달하는 Task 를 반환한다.
+         * <p>
+         * 모든 결과가 전달되면 {@link StreamListener#onComplete()} 가 호출된다.
+         *
+         * @param ordered    true 이면 결과를 주어진 순서대로 전달한다.
+         * @param maxPending 0 보다 크면, 실행중이거나 전달을 기다리는 결과의 수를 이 값으로 제한한다.
+         */
+        public static <T> Task<Void> parallelStream(final Collection<? extends Task<T>> collection, boolean ordered, int maxPending, StreamListener<T> listener) {
+            return newTask(new StreamCallable<>(collection.toArray(new Task[collection.size()]), ordered, maxPending, listener));
         }
 
         /**
@@ -235,6 +333,48 @@ public final class Tasks {
             return parallelTask(tasks.toArray(new Task[tasks.size()]), func);
         }
 
+        /**
+         * 병렬적으로 주어진 Tasks 를 실행하고, 결과를 순서대로 담은 List 를 반환하는 Task 를 반환한다.
+         * <p>
+         * 하나라도 에러가 발생하면 나머지 Task 를 취소하고 그 에러를 던진다. 반환되는 List 는 수정할 수 있다.
+         */
+        public static <T> Task<List<T>> all(final Collection<? extends Task<T>> collection) {
+            return new AllTaskImpl<>(collection.toArray(new Task[collection.size()]));
+        }
+
+        /**
+         * 두 Task 를 병렬적으로 실행한 뒤, 두 결과를 합치는 Task 를 반환한다.
+         * <p>
+         * 하나라도 에러가 발생하면 다른 Task 를 취소하고 그 에러를 던진다.
+         */
+        public static <A, B, R> Task<R> zip(final Task<A> a, final Task<B> b, final BiFunc<A, B, R> func) {
+            return new AllTaskImpl<>(new Task[]{a, b}).map(new Func<List<Object>, R>() {
+                @Override
+                public R func(List<Object> objects) throws Throwable {
+                    //noinspection unchecked
+                    return func.func((A) objects.get(0), (B) objects.get(1));
+                }
+            });
+        }
+
+        /**
+         * 병렬적으로 주어진 Tasks 를 실행한 뒤, 결과를 순서대로 누적하는 Task 를 반환한다.
+         * <p>
+         * 하나라도 에러가 발생하면 나머지 Task 를 취소하고 그 에러를 던진다.
+         */
+        public static <T, R> Task<R> reduce(final Collection<? extends Task<T>> collection, final R initial, final BiFunc<R, T, R> func) {
+            return all(collection).map(new Func<List<T>, R>() {
+                @Override
+                public R func(List<T> list) throws Throwable {
+                    R r = initial;
+                    for (int i = 0, size = list.size(); i < size; i++) {
+                        r = func.func(r, list.get(i));
+                    }
+                    return r;
+                }
+            });
+        }
+
         /**
          * 순차적으로 Task 를 실행한다.
          */
@@ -250,6 +390,7 @@ public final class Tasks {
         public static Object[] workSerial(Task... tasks) throws Throwable {
             Object[] objects = new Object[tasks.length];
             for (int i = 0; i < tasks.length; i++) {
+                TaskContext.checkDeadline();
                 objects[i] = tasks[i].get();
             }
 
@@ -266,50 +407,93 @@ public final class Tasks {
 
         /**
          * 병렬적으로 Task 를 실행한다.
+         * <p>
+         * 에러가 발생한 작업의 자리에는 {@link ExecutionException} 이 담긴다.
+         * deadline 이 지나거나 인터럽트되거나 취소되어 끝나지 못한 작업의 자리에는
+         * {@link TimeoutException}, {@link InterruptedException}, {@link CancellationException} 이 담긴다.
          */
         @WorkerThread
         public static Object[] workParallel(Task... tasks) {
-            FutureTask[] futureTasks = new FutureTask[tasks.length];
             Object[] objects = new Object[tasks.length];
-
-            for (int i = 0; i < tasks.length; i++) {
-                FutureTask futureTask = futureTask(tasks[i]);
-                futureTasks[i] = futureTask;
-                execute(futureTask);
+            Arrays.fill(objects, UNFINISHED);
+            Exception stopped = null;
+            try {
+                runParallel(tasks, objects);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                stopped = e;
+            } catch (TimeoutException e) {
+                stopped = e;
             }
+            return fillUnfinished(objects, stopped);
+        }
 
-            for (int i = 0; i < futureTasks.length; i++) {
-                try {
-                    objects[i] = futureTasks[i].get();
-                } catch (Exception e) {
-                    objects[i] = e;
+        /**
+         * 끝나지 못한 작업의 자리를 e 로 채운 복사본을 반환한다. 모두 끝났다면 그대로 반환한다.
+         * <p>
+         * 취소된 작업 스레드가 멈추기 전에 원래 배열에 결과를 쓰더라도, 반환된 배열은 바뀌지 않는다.
+         */
+        private static Object[] fillUnfinished(Object[] objects, Exception e) {
+            boolean finished = true;
+            for (Object o : objects) {
+                if (o == UNFINISHED) {
+                    finished = false;
+                    break;
                 }
             }
+            if (finished)
+                return objects;
+
+            if (e == null)
+                e = new CancellationException("cancelled");
+            Object[] copy = new Object[objects.length];
+            for (int i = 0; i < objects.length; i++) {
+                Object o = objects[i];
+                copy[i] = o == UNFINISHED ? e : o;
+            }
+            return copy;
+        }
 
-            return objects;
+        /**
+         * 주어진 Tasks 를 병렬로 실행한다. 현재 스레드도 하위 작업을 직접 실행하며, 결과는 각 작업이 끝나는 대로 채워진다.
+         * <p>
+         * 에러가 발생한 작업의 자리에는 {@link ExecutionException} 이 담긴다.
+         * deadline 이 지나거나 인터럽트되거나 취소되면 끝나지 않은 작업의 자리는 비어있다.
+         */
+        private static void runParallel(final Task[] tasks, final Object[] objects) throws InterruptedException, TimeoutException {
+            new ParallelRunner(tasks.length) {
+                @Override
+                void compute(int index) {
+                    try {
+                        objects[index] = tasks[index].get();
+                    } catch (Throwable throwable) {
+                        objects[index] = new ExecutionException(throwable);
+                    }
+                }
+            }.run(Schedulers.background());
+        }
+
+        /**
+         * 현재 실행의 하위 실행으로 runner 를 실행한다. 하위 실행을 취소해도 현재 실행에는 영향이 없다.
+         */
+        private static void runForked(TaskContext context, ParallelRunner runner) throws InterruptedException, TimeoutException {
+            TaskContext prev = TaskContext.enter(context);
+            try {
+                runner.run(Schedulers.background());
+            } finally {
+                TaskContext.restore(prev);
+                context.close();
+            }
         }
 
         private static class SerialTaskImpl extends BaseTask<Object[]> {
-            private Task[] tasks;
 
             SerialTaskImpl(final Task[] tasks) {
                 super(new SerialCallable(tasks));
-                this.tasks = tasks;
             }
 
-
-            @Override
-            public Task<Object[]> clone() {
-                Task[] tasks1 = new Task[tasks.length];
-                for (int i = 0; i < tasks.length; i++) {
-                    tasks1[i] = tasks[i].clone();
-                }
-                return new SerialTaskImpl(tasks1);
-            }
-
-            private static class SerialCallable implements Callable2<Object[]>, Cancelable {
-                private Task[] tasks;
-                private boolean isCanceled = false;
+            private static class SerialCallable implements Callable2<Object[]> {
+                private final Task[] tasks;
 
                 SerialCallable(final Task[] tasks) {
                     this.tasks = tasks;
@@ -319,35 +503,29 @@ public final class Tasks {
                 public Object[] call() throws Throwable {
                     Object[] objects = new Object[tasks.length];
                     for (int i = 0; i < tasks.length; i++) {
-                        if (isCanceled) {
+                        if (TaskContext.cancelled()) {
                             return null;
                         }
+                        TaskContext.checkDeadline();
                         objects[i] = tasks[i].get();
                     }
 
-                    return objects;
-                }
-
-                @Override
-                public boolean cancel() {
-                    this.isCanceled = true;
-                    return true;
+                    return TaskContext.cancelled() ? null : objects;
                 }
             }
         }
 
-        //todo cancel
         private static class ParallelTaskImpl extends BaseTask<Object[]> {
-            private Task[] tasks;
 
             ParallelTaskImpl(final Task[] tasks) {
                 super(new ParallelCallable(tasks));
-                this.tasks = tasks;
             }
 
-            private static class ParallelCallable implements Callable2<Object[]>, Cancelable {
-                private Task[] tasks;
-                private boolean isCanceled = false;
+            /**
+             * 실행이 취소되면 시작되지 않은 하위 작업은 실행하지 않고, 작업 스레드를 인터럽트한다.
+             */
+            private static class ParallelCallable implements Callable2<Object[]> {
+                private final Task[] tasks;
 
                 ParallelCallable(final Task[] tasks) {
                     this.tasks = tasks;
@@ -355,104 +533,154 @@ public final class Tasks {
 
                 @Override
                 public Object[] call() throws Throwable {
-                    final int N = tasks.length;
-                    FutureTask[] futureTasks = new FutureTask[N];
-                    Object[] objects = new Object[N];
+                    if (TaskContext.cancelled())
+                        return null;
 
-                    for (int i = 0; i < N; i++) {
-                        FutureTask futureTask = futureTask(tasks[i]);
-                        futureTasks[i] = futureTask;
-                        execute(futureTask);
-                    }
+                    Object[] objects = new Object[tasks.length];
+                    runParallel(tasks, objects);
+                    return TaskContext.cancelled() ? null : objects;
+                }
+            }
+        }
+
+        private static class AllTaskImpl<T> extends BaseTask<List<T>> {
+
+            AllTaskImpl(final Task[] tasks) {
+                super(new AllCallable<T>(tasks));
+            }
 
-                    for (int i = 0; i < N; i++) {
-                        if (isCanceled) {
-                            for (FutureTask futureTask : futureTasks) {
-                                try {
-                                    futureTask.cancel(true);
-                                } catch (Exception e) {
-                                    e.printStackTrace();
+            /**
+             * 결과는 하위 작업이 끝나는 대로 자기 자리에 바로 쓰이고, 모두 끝나면 ArrayList 로 옮겨 반환한다.
+             * 에러는 결과 배열에 섞지 않고 따로 보관한다.
+             */
+            private static class AllCallable<T> implements Callable2<List<T>> {
+                private final Task[] tasks;
+
+                AllCallable(final Task[] tasks) {
+                    this.tasks = tasks;
+                }
+
+                @Override
+                public List<T> call() throws Throwable {
+                    if (TaskContext.cancelled())
+                        return null;
+
+                    final Object[] results = new Object[tasks.length];
+                    final Throwable[] error = new Throwable[1];
+                    final TaskContext context = TaskContext.fork();
+
+                    runForked(context, new ParallelRunner(tasks.length) {
+                        @Override
+                        void compute(int index) {
+                            if (context.isCancelled())
+                                return;
+
+                            try {
+                                results[index] = tasks[index].get();
+                            } catch (Throwable throwable) {
+                                synchronized (error) {
+                                    if (error[0] == null)
+                                        error[0] = throwable;
                                 }
+                                context.cancel();
                             }
-                            return null;
-                        }
-                        try {
-                            objects[i] = futureTasks[i].get();
-                        } catch (Exception e) {
-                            objects[i] = e;
                         }
-                    }
+                    });
 
-                    return objects;
-                }
+                    synchronized (error) {
+                        if (error[0] != null)
+                            throw error[0];
+                    }
 
-                @Override
-                public boolean cancel() {
-                    this.isCanceled = true;
-                    return true;
-                }
-            }
+                    if (TaskContext.cancelled())
+                        return null;
 
-            @Override
-            public Task<Object[]> clone() {
-                Task[] tasks1 = new Task[tasks.length];
-                for (int i = 0; i < tasks.length; i++) {
-                    tasks1[i] = tasks[i].clone();
+                    //noinspection unchecked
+                    return new ArrayList<>((List<T>) Arrays.asList(results));
                 }
-                return new ParallelTaskImpl(tasks1);
             }
         }
-    }
 
-    static class ConvertCallable<T, V> implements Callable2<V>, Cancelable {
-        private Callable2<T> call;
-        private Func<T, V> func;
-        private AtomicBoolean isCancelled = new AtomicBoolean(false);
+        private static class BatchTaskImpl<T> extends BaseTask<List<T>> {
 
-        ConvertCallable(Callable2<T> callable, Func<T, V> func) {
-            this.call = callable;
-            this.func = func;
-        }
+            /**
+             * partitions 가 0 보다 크면 고정된 구간으로, 아니면 chunkSize 단위의 동적 구간으로 나누어 실행한다.
+             */
+            BatchTaskImpl(final Task[] tasks, int partitions, int chunkSize) {
+                super(new BatchCallable<T>(tasks, partitions, chunkSize));
+            }
 
-        @Override
-        public V call() throws Throwable {
-            try {
-                if (isCancelled.get()) {
-                    sendCancelToCancelable(call);
-                    return null;
+            private static class BatchCallable<T> implements Callable2<List<T>> {
+                private final Task[] tasks;
+                private final int partitions;
+                private final int chunkSize;
+
+                BatchCallable(final Task[] tasks, int partitions, int chunkSize) {
+                    this.tasks = tasks;
+                    this.partitions = partitions;
+                    this.chunkSize = chunkSize;
                 }
 
-                T t = call.call();
+                @Override
+                public List<T> call() throws Throwable {
+                    if (TaskContext.cancelled())
+                        return null;
 
-                if (isCancelled.get()) {
-                    sendCancelToCancelable(func);
-                    return null;
-                }
+                    final int N = tasks.length;
+                    final Collection[] results = new Collection[N];
+                    final Throwable[] error = new Throwable[1];
+                    final int jobs = partitions > 0 ? partitions : (N + chunkSize - 1) / chunkSize;
+                    final TaskContext context = TaskContext.fork();
+
+                    runForked(context, new ParallelRunner(jobs) {
+                        @Override
+                        void compute(int index) {
+                            int start, end;
+                            if (partitions > 0) {
+                                start = (int) ((long) index * N / partitions);
+                                end = (int) ((long) (index + 1) * N / partitions);
+                            } else {
+                                start = index * chunkSize;
+                                end = Math.min(N, start + chunkSize);
+                            }
 
-                V v = func.func(t);
+                            try {
+                                for (int i = start; i < end && !context.isCancelled(); i++) {
+                                    results[i] = (Collection) tasks[i].get();
+                                }
+                            } catch (Throwable throwable) {
+                                synchronized (error) {
+                                    if (error[0] == null)
+                                        error[0] = throwable;
+                                }
+                                context.cancel();
+                            }
+                        }
+                    });
 
-                if (isCancelled.get()) {
-                    return null;
-                }
+                    synchronized (error) {
+                        if (error[0] != null)
+                            throw error[0];
+                    }
 
-                return v;
-            } finally {
-                call = null;
-                func = null;
-            }
-        }
+                    if (TaskContext.cancelled())
+                        return null;
 
-        @Override
-        public boolean cancel() {
-            isCancelled.set(true);
-            Callable2 callable = call;
-            while (callable instanceof Tasks.ConvertCallable) {
-                ConvertCallable convertCallable = (ConvertCallable) callable;
-                convertCallable.cancel();
-                callable = convertCallable.call;
+                    int size = 0;
+                    for (Collection c : results) {
+                        if (c != null)
+                            size += c.size();
+                    }
+
+                    ArrayList<T> list = new ArrayList<>(size);
+                    for (Collection c : results) {
+                        if (c != null)
+                            //noinspection unchecked
+                            list.addAll(c);
+                    }
+                    return list;
+                }
             }
-            return true;
         }
     }
-
 }
@@ -0,0 +1,103 @@
+package mj.android.utils.task;
+
+import android.support.annotation.NonNull;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 가상 시간을 사용하는 Scheduler.
+ * <p>
+ * 작업은 {@link #advanceTimeBy(long, TimeUnit)} 또는 {@link #triggerActions()} 를 호출한 스레드에서 실행된다.
+ */
+public class TestScheduler implements Scheduler {
+    private final PriorityQueue<Action> queue = new PriorityQueue<>(16, new Comparator<Action>() {
+        @Override
+        public int compare(Action a, Action b) {
+            if (a.time != b.time)
+                return a.time < b.time ? -1 : 1;
+            return a.seq < b.seq ? -1 : (a.seq == b.seq ? 0 : 1);
+        }
+    });
+
+    private long time = 0;
+    private long seq = 0;
+
+    @Override
+    public void execute(@NonNull Runnable command) {
+        schedule(command, 0, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public Cancelable schedule(@NonNull Runnable r, long delay, @NonNull TimeUnit unit) {
+        final Action action;
+        synchronized (this) {
+            action = new Action(time + unit.toNanos(Math.max(0, delay)), seq++, r);
+            queue.add(action);
+        }
+        return new Cancelable() {
+            @Override
+            public boolean cancel() {
+                synchronized (TestScheduler.this) {
+                    return queue.remove(action);
+                }
+            }
+        };
+    }
+
+    @Override
+    public synchronized long now(@NonNull TimeUnit unit) {
+        return unit.convert(time, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 가상 시간을 주어진 만큼 진행시키며, 그 사이에 예약된 작업을 실행한다.
+     */
+    public void advanceTimeBy(long delay, @NonNull TimeUnit unit) {
+        long target;
+        synchronized (this) {
+            target = time + unit.toNanos(delay);
+        }
+        advanceTimeTo(target);
+    }
+
+    /**
+     * 현재 시간까지 예약된 작업을 실행한다.
+     */
+    public void triggerActions() {
+        long target;
+        synchronized (this) {
+            target = time;
+        }
+        advanceTimeTo(target);
+    }
+
+    private void advanceTimeTo(long target) {
+        while (true) {
+            Action action;
+            synchronized (this) {
+                action = queue.peek();
+                if (action == null || action.time > target) {
+                    time = target;
+                    return;
+                }
+                queue.poll();
+                time = action.time;
+            }
+            action.runnable.run();
+        }
+    }
+
+    private static class Action {
+        final long time;
+        final long seq;
+        final Runnable runnable;
+
+        Action(long time, long seq, Runnable runnable) {
+            this.time = time;
+            this.seq = seq;
+            this.runnable = runnable;
+        }
+    }
+}
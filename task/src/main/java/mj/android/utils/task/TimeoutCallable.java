@@ -0,0 +1,62 @@
+package mj.android.utils.task;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 주어진 시간 안에 끝나지 않으면 작업을 취소하고 {@link TimeoutException} 을 던진다.
+ * <p>
+ * 남은 시간은 {@link TaskContext} 로 하위 작업에 전달되며, 상위 작업의 deadline 이 더 이르면 그것을 따른다.
+ */
+class TimeoutCallable<T> implements Callable2<T> {
+    final Callable2<T> callable;
+    final long timeoutNanos;
+
+    TimeoutCallable(Callable2<T> callable, long timeout, TimeUnit unit) {
+        this.callable = callable;
+        this.timeoutNanos = unit.toNanos(timeout);
+    }
+
+    @Override
+    public T call() throws Throwable {
+        long now = System.nanoTime();
+        long deadline = TaskContext.earlier(now + timeoutNanos, TaskContext.deadline());
+        if (deadline - now <= 0)
+            throw new TimeoutException("deadline exceeded");
+
+        final TaskContext context = TaskContext.fork(deadline);
+        final InterruptGuard guard = new InterruptGuard();
+        guard.enter();
+        final AtomicBoolean timedOut = new AtomicBoolean(false);
+        // 만료 처리는 취소를 전하고 스레드를 깨우기만 하므로 타이머 스레드에서 바로 실행한다.
+        // 스레드 풀이 멈춘 작업으로 가득 차 있어도 timeout 이 동작해야 한다.
+        Cancelable timer = TimerWheel.get().schedule(new Runnable() {
+            @Override
+            public void run() {
+                // 남은 하위 작업이 시작되지 않도록 먼저 취소한 뒤, 실행중인 스레드를 깨운다.
+                timedOut.set(true);
+                context.cancel();
+                guard.interrupt();
+            }
+        }, Schedulers.immediate(), deadline - now, TimeUnit.NANOSECONDS);
+
+        TaskContext prev = TaskContext.enter(context);
+        T t = null;
+        Throwable error = null;
+        try {
+            t = TaskContext.call(callable);
+        } catch (Throwable e) {
+            error = e;
+        }
+        TaskContext.restore(prev);
+        context.close();
+        timer.cancel();
+
+        if (guard.exit() | timedOut.get())
+            throw new TimeoutException("deadline exceeded");
+        if (error != null)
+            throw error;
+        return t;
+    }
+}
@@ -0,0 +1,244 @@
+package mj.android.utils.task;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 모든 지연 작업이 공유하는 hashed timer wheel.
+ * <p>
+ * 예약과 취소는 O(1) 이며, 하나의 타이머 스레드가 tick 마다 한 칸의 작업만 확인한다.
+ * 시간이 되면 작업을 지정된 Executor 로 넘기기만 하므로, 타이머 스레드에서 작업이 실행되지는 않는다.
+ * 취소된 작업은 바로 wheel 에서 제거되며, 예약된 작업이 없으면 타이머 스레드는 다음 예약까지 잠든다.
+ * <p>
+ * 작업은 예약된 시각 이후, 한 tick 이내에 실행된다.
+ */
+final class TimerWheel implements Runnable {
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final int WHEEL_SIZE = 512;
+
+    private final Timeout[] wheel = new Timeout[WHEEL_SIZE];
+    /**
+     * wheel 의 각 칸과 Timeout 의 prev, next, bucket 을 보호한다.
+     */
+    private final Object lock = new Object();
+    private final ConcurrentLinkedQueue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger scheduled = new AtomicInteger(0);
+    private final long startedAt = System.nanoTime();
+    private final Object idle = new Object();
+    private boolean waiting = false;
+    private long tick = 0;
+
+    private static class Holder {
+        static final TimerWheel INSTANCE = start(new TimerWheel());
+
+        private static TimerWheel start(TimerWheel wheel) {
+            Thread t = new Thread(wheel, "Tasks-Timer");
+            t.setDaemon(true);
+            t.start();
+            return wheel;
+        }
+    }
+
+    private TimerWheel() {
+    }
+
+    static TimerWheel get() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * delay 뒤에 r 을 executor 로 실행한다.
+     */
+    Timeout schedule(Runnable r, Executor executor, long delay, TimeUnit unit) {
+        long deadline = System.nanoTime() - startedAt + Math.max(0, unit.toNanos(delay));
+        Timeout timeout = new Timeout(this, r, executor, deadline);
+        boolean wasIdle = scheduled.getAndIncrement() == 0;
+        pending.add(timeout);
+
+        if (wasIdle) {
+            synchronized (idle) {
+                if (waiting)
+                    idle.notify();
+            }
+        }
+        return timeout;
+    }
+
+    @Override
+    public void run() {
+        while (true) {
+            try {
+                awaitScheduled();
+                long tickDeadline = awaitNextTick();
+                transferPending();
+                expire((int) (tick & (WHEEL_SIZE - 1)), tickDeadline);
+                tick++;
+            } catch (InterruptedException ignored) {
+            } catch (Throwable t) {
+                t.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * 예약된 작업이 없으면 기다린다. 깨어나면 지나간 tick 은 건너뛴다.
+     */
+    private void awaitScheduled() throws InterruptedException {
+        if (scheduled.get() > 0)
+            return;
+
+        synchronized (idle) {
+            waiting = true;
+            try {
+                while (scheduled.get() == 0) {
+                    idle.wait();
+                }
+            } finally {
+                waiting = false;
+            }
+        }
+        tick = (System.nanoTime() - startedAt) / TICK_NANOS;
+    }
+
+    /**
+     * @return 현재 tick 이 끝나는 시각
+     */
+    private long awaitNextTick() throws InterruptedException {
+        long tickDeadline = TICK_NANOS * (tick + 1);
+        while (true) {
+            long sleep = tickDeadline - (System.nanoTime() - startedAt);
+            if (sleep <= 0)
+                return tickDeadline;
+            TimeUnit.NANOSECONDS.sleep(sleep);
+        }
+    }
+
+    /**
+     * @return wheel 에 있거나 wheel 로 옮겨지기를 기다리는 작업 수
+     */
+    int size() {
+        return scheduled.get();
+    }
+
+    private void transferPending() {
+        Timeout timeout;
+        while ((timeout = pending.poll()) != null) {
+            synchronized (lock) {
+                if (timeout.state.get() != Timeout.WAITING) {
+                    scheduled.decrementAndGet();
+                    continue;
+                }
+
+                long ticks = Math.max(timeout.deadline / TICK_NANOS, tick);
+                timeout.remainingRounds = (ticks - tick) / WHEEL_SIZE;
+                int index = (int) (ticks & (WHEEL_SIZE - 1));
+
+                timeout.bucket = index;
+                timeout.next = wheel[index];
+                if (wheel[index] != null)
+                    wheel[index].prev = timeout;
+                wheel[index] = timeout;
+            }
+        }
+    }
+
+    /**
+     * index 칸에서 시간이 된 작업을 떼어낸 뒤, lock 밖에서 Executor 로 넘긴다.
+     */
+    private void expire(int index, long tickDeadline) {
+        Timeout expired = null;
+        synchronized (lock) {
+            Timeout timeout = wheel[index];
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.remainingRounds <= 0 && timeout.deadline <= tickDeadline) {
+                    remove(timeout);
+                    timeout.next = expired;
+                    expired = timeout;
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        while (expired != null) {
+            Timeout next = expired.next;
+            expired.next = null;
+            expired.expire();
+            expired = next;
+        }
+    }
+
+    /**
+     * 취소된 작업이 wheel 에 있으면 바로 제거한다. 아직 wheel 로 옮겨지지 않았다면 옮길 때 버려진다.
+     */
+    private void cancelled(Timeout timeout) {
+        synchronized (lock) {
+            if (timeout.bucket >= 0)
+                remove(timeout);
+        }
+    }
+
+    /**
+     * lock 을 가진 채로 호출해야 한다.
+     */
+    private void remove(Timeout timeout) {
+        if (timeout.prev != null)
+            timeout.prev.next = timeout.next;
+        else
+            wheel[timeout.bucket] = timeout.next;
+        if (timeout.next != null)
+            timeout.next.prev = timeout.prev;
+        timeout.prev = timeout.next = null;
+        timeout.bucket = -1;
+        scheduled.decrementAndGet();
+    }
+
+    static final class Timeout implements Cancelable {
+        static final int WAITING = 0, CANCELLED = 1, EXPIRED = 2;
+
+        private final TimerWheel wheel;
+        private final Runnable task;
+        private final Executor executor;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+        private long remainingRounds;
+        /**
+         * wheel 에서의 칸. wheel 에 없으면 -1
+         */
+        private int bucket = -1;
+        private Timeout prev, next;
+
+        private Timeout(TimerWheel wheel, Runnable task, Executor executor, long deadline) {
+            this.wheel = wheel;
+            this.task = task;
+            this.executor = executor;
+            this.deadline = deadline;
+        }
+
+        /**
+         * 아직 실행되지 않았다면 실행되지 않도록 하고, 타이머에서 바로 제거한다.
+         */
+        @Override
+        public boolean cancel() {
+            if (!state.compareAndSet(WAITING, CANCELLED))
+                return false;
+            wheel.cancelled(this);
+            return true;
+        }
+
+        private void expire() {
+            if (!state.compareAndSet(WAITING, EXPIRED))
+                return;
+            try {
+                executor.execute(task);
+            } catch (RejectedExecutionException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
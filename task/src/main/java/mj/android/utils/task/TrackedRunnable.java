@@ -0,0 +1,20 @@
+package mj.android.utils.task;
+
+/**
+ * 스레드를 놓은 뒤에도 계속될 수 있는 실행. {@link TaskQueue} 는 이 실행이 끝날 때 까지 실행 슬롯을 차지한다.
+ * <p>
+ * 비동기 작업, {@link Limiter} 의 허가를 기다리는 실행, 재시도를 기다리는 실행은 run() 이 반환된 뒤에도 끝나지 않는다.
+ */
+interface TrackedRunnable extends Runnable, Cancelable {
+    /**
+     * 실행이 결과, 에러, 취소 중 하나로 끝날 때 한 번 호출할 콜백을 지정한다.
+     *
+     * @return 이미 콜백이 지정된 실행이 이어서 다시 요청된 것이면 false
+     */
+    boolean track(Runnable onDone);
+
+    /**
+     * 실행되지 못하고 버려질 때 호출된다. 넘겨받은 허가를 반납하고, 리스너에 reason 과 atLast 를 전달한다.
+     */
+    void reject(Throwable reason);
+}
@@ -0,0 +1,69 @@
+package mj.android.utils.task;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BaseTaskTest {
+
+    @Test
+    public void cancelReachesEveryConcurrentRun() throws Throwable {
+        final int runs = 3;
+        final CountDownLatch started = new CountDownLatch(runs);
+        final AtomicInteger stopped = new AtomicInteger();
+        final BaseTask<Integer> task = new BaseTask<>(new Callable2<Integer>() {
+            @Override
+            public Integer call() throws Throwable {
+                started.countDown();
+                // 취소될 때 까지 기다린다.
+                while (!TaskContext.cancelled()) {
+                    Thread.sleep(5);
+                }
+                stopped.incrementAndGet();
+                return null;
+            }
+        });
+
+        Thread[] threads = new Thread[runs];
+        for (int i = 0; i < runs; i++) {
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        task.get();
+                    } catch (Throwable t) {
+                        t.printStackTrace();
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        started.await();
+
+        assertTrue(task.cancel());
+        for (Thread thread : threads) {
+            thread.join(1000);
+            assertFalse(thread.isAlive());
+        }
+        assertEquals(runs, stopped.get());
+        assertFalse(task.cancel());
+    }
+
+    @Test
+    public void cancelDoesNotAffectLaterRuns() throws Throwable {
+        BaseTask<Integer> task = new BaseTask<>(new Callable2<Integer>() {
+            @Override
+            public Integer call() {
+                return 1;
+            }
+        });
+
+        assertFalse(task.cancel());
+        assertEquals(Integer.valueOf(1), task.get());
+    }
+}
@@ -0,0 +1,224 @@
+package mj.android.utils.task;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class LimiterTest {
+
+    private static Thread acquireInBackground(final Limiter limiter, final List<String> order, final String name,
+                                              final AtomicReference<Throwable> error) {
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    limiter.acquireBlocking();
+                    order.add(name);
+                } catch (Throwable t) {
+                    error.set(t);
+                }
+            }
+        };
+        thread.start();
+        return thread;
+    }
+
+    private static void awaitWaiting(ConcurrencyLimiter limiter, int expected) throws InterruptedException {
+        for (int i = 0; i < 100 && limiter.getWaiting() != expected; i++) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, limiter.getWaiting());
+    }
+
+    @Test
+    public void blockingAndAsyncWaitersShareOneQueue() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1);
+        final List<String> order = Collections.synchronizedList(new ArrayList<String>());
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        assertEquals(0, limiter.acquire(null));
+
+        Thread blocking = acquireInBackground(limiter, order, "blocking", error);
+        awaitWaiting(limiter, 1);
+        assertEquals(-1, limiter.acquire(new Runnable() {
+            @Override
+            public void run() {
+                order.add("async");
+            }
+        }));
+        assertEquals(2, limiter.getWaiting());
+
+        limiter.release();
+        blocking.join(1000);
+        assertEquals(1, order.size());
+        assertEquals("blocking", order.get(0));
+
+        limiter.release();
+        assertEquals(2, order.size());
+        assertEquals("async", order.get(1));
+        assertEquals(1, limiter.getRunning());
+
+        limiter.release();
+        assertEquals(0, limiter.getRunning());
+        assertNull(error.get());
+    }
+
+    @Test
+    public void timedOutWaiterLeavesQueue() throws Throwable {
+        final ConcurrencyLimiter limiter = new ConcurrencyLimiter(1);
+        assertEquals(0, limiter.acquire(null));
+
+        try {
+            Tasks.newTask(new Callable2<Integer>() {
+                @Override
+                public Integer call() {
+                    return 1;
+                }
+            }).limited(limiter).timeout(50, TimeUnit.MILLISECONDS).get();
+            fail();
+        } catch (TimeoutException expected) {
+        }
+
+        assertEquals(0, limiter.getWaiting());
+        assertEquals(1, limiter.getRunning());
+        limiter.release();
+        assertEquals(0, limiter.getRunning());
+    }
+
+    @Test
+    public void interruptedWaiterLeavesQueue() throws Exception {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1);
+        List<String> order = Collections.synchronizedList(new ArrayList<String>());
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        assertEquals(0, limiter.acquire(null));
+
+        Thread blocking = acquireInBackground(limiter, order, "blocking", error);
+        awaitWaiting(limiter, 1);
+        blocking.interrupt();
+        blocking.join(1000);
+
+        assertTrue(error.get() instanceof InterruptedException);
+        assertEquals(0, limiter.getWaiting());
+        limiter.release();
+        assertEquals(0, limiter.getRunning());
+    }
+
+    @Test
+    public void neverExceedsMaxConcurrency() throws Throwable {
+        final ConcurrencyLimiter limiter = new ConcurrencyLimiter(2);
+        final AtomicInteger current = new AtomicInteger();
+        final AtomicInteger peak = new AtomicInteger();
+        final Task<Integer> task = Tasks.newTask(new Callable2<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+                int n = current.incrementAndGet();
+                while (true) {
+                    int p = peak.get();
+                    if (n <= p || peak.compareAndSet(p, n))
+                        break;
+                }
+                Thread.sleep(5);
+                current.decrementAndGet();
+                return n;
+            }
+        }).limited(limiter);
+
+        ExecutorService pool = Executors.newFixedThreadPool(6);
+        try {
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < 30; i++) {
+                futures.add(pool.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        try {
+                            return task.get();
+                        } catch (Throwable t) {
+                            throw new Exception(t);
+                        }
+                    }
+                }));
+            }
+            for (Future<Integer> future : futures) {
+                future.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertTrue(peak.get() <= 2);
+        assertEquals(0, limiter.getRunning());
+        assertEquals(0, limiter.getWaiting());
+    }
+
+    @Test
+    public void rateLimiterAllowsBurst() {
+        RateLimiter limiter = new RateLimiter(1, 2);
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+    }
+
+    @Test
+    public void rateLimiterSpacesBlockingAcquires() throws Exception {
+        RateLimiter limiter = new RateLimiter(20);
+        long start = System.nanoTime();
+        for (int i = 0; i < 3; i++) {
+            limiter.acquireBlocking();
+        }
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(90));
+    }
+
+    @Test
+    public void rateLimiterReturnsReservationOfInterruptedWaiter() throws Exception {
+        RateLimiter limiter = new RateLimiter(5);
+        assertTrue(limiter.tryAcquire());
+
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        Thread blocking = acquireInBackground(limiter, new ArrayList<String>(), "blocking", error);
+        Thread.sleep(50);
+        blocking.interrupt();
+        blocking.join(1000);
+        assertTrue(error.get() instanceof InterruptedException);
+
+        // 되돌려진 예약은 다음 요청이 사용한다.
+        Thread.sleep(200);
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    public void rateLimiterDoesNotReserveBeyondDeadline() throws Throwable {
+        RateLimiter limiter = new RateLimiter(5);
+        assertTrue(limiter.tryAcquire());
+
+        long start = System.nanoTime();
+        try {
+            Tasks.newTask(new Callable2<Integer>() {
+                @Override
+                public Integer call() {
+                    return 1;
+                }
+            }).rateLimited(limiter).timeout(50, TimeUnit.MILLISECONDS).get();
+            fail();
+        } catch (TimeoutException expected) {
+        }
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(50));
+
+        Thread.sleep(220);
+        assertTrue(limiter.tryAcquire());
+    }
+}
@@ -0,0 +1,246 @@
+package mj.android.utils.task;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ParallelRunnerTest {
+    private final AtomicInteger started = new AtomicInteger();
+    private final LinkedBlockingQueue<Runnable> deliveries = new LinkedBlockingQueue<>();
+    private ExecutorService pool;
+
+    @Before
+    public void setUp() {
+        pool = Executors.newFixedThreadPool(1);
+        Schedulers.setBackground(Schedulers.from(pool));
+        Schedulers.setDelivery(Schedulers.from(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                deliveries.add(command);
+            }
+        }));
+    }
+
+    @After
+    public void tearDown() {
+        pool.shutdownNow();
+        Schedulers.setBackground(Schedulers.from(Executors.newCachedThreadPool()));
+        Schedulers.setDelivery(Schedulers.immediate());
+    }
+
+    private Task<Integer> sleeping(final int value, final long millis) {
+        return Tasks.newTask(new Callable2<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+                started.incrementAndGet();
+                Thread.sleep(millis);
+                return value;
+            }
+        });
+    }
+
+    private List<Task<Integer>> sleepingTasks(int count, long millis) {
+        List<Task<Integer>> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            tasks.add(sleeping(i, millis));
+        }
+        return tasks;
+    }
+
+    private void drainDeliveries() {
+        Runnable r;
+        while ((r = deliveries.poll()) != null) {
+            r.run();
+        }
+    }
+
+    private static Thread getInBackground(final Task<?> task, final AtomicReference<Object> result) {
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    result.set(task.get());
+                } catch (Throwable t) {
+                    result.set(t);
+                }
+            }
+        };
+        thread.start();
+        return thread;
+    }
+
+    @Test
+    public void runsEverythingOnCallerWhenExecutorRejects() throws Throwable {
+        Schedulers.setBackground(Schedulers.from(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                throw new RejectedExecutionException("full");
+            }
+        }));
+
+        Object[] results = Tasks.Parallel.parallelTask(sleeping(0, 1), sleeping(1, 1), sleeping(2, 1)).get();
+        assertArrayEquals(new Object[]{0, 1, 2}, results);
+    }
+
+    @Test
+    public void deadlineCancelsRemainingTasks() throws Throwable {
+        Task<Object[]> task = Tasks.Parallel.parallelTask(sleeping(0, 300), sleeping(1, 300), sleeping(2, 300), sleeping(3, 300))
+                .timeout(50, TimeUnit.MILLISECONDS);
+
+        long start = System.nanoTime();
+        try {
+            task.get();
+            fail();
+        } catch (TimeoutException expected) {
+        }
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(250));
+        Thread.sleep(50);
+        assertTrue(started.get() < 4);
+    }
+
+    @Test
+    public void cancelStopsRemainingTasks() throws Throwable {
+        final CountDownLatch first = new CountDownLatch(1);
+        Task<Object[]> task = Tasks.Parallel.parallelTask(Tasks.newTask(new Callable2<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+                started.incrementAndGet();
+                first.countDown();
+                Thread.sleep(300);
+                return 0;
+            }
+        }), sleeping(1, 300), sleeping(2, 300), sleeping(3, 300));
+
+        AtomicReference<Object> result = new AtomicReference<>();
+        Thread thread = getInBackground(task, result);
+        first.await();
+        Tasks.sendCancelToCancelable(task);
+        thread.join(1000);
+
+        assertFalse(thread.isAlive());
+        assertTrue(started.get() < 4);
+    }
+
+    @Test
+    public void streamHelpersDoNotWaitForPermits() throws Throwable {
+        final List<Integer> received = new ArrayList<>();
+        final AtomicBoolean completed = new AtomicBoolean();
+        Task<Void> task = Tasks.Parallel.parallelStream(sleepingTasks(4, 1), true, 1, new StreamListener<Integer>() {
+            @Override
+            public void onNext(int index, Integer result) {
+                received.add(result);
+            }
+
+            @Override
+            public void onError(int index, Throwable t) {
+                fail();
+            }
+
+            @Override
+            public void onComplete() {
+                completed.set(true);
+            }
+        });
+
+        AtomicReference<Object> result = new AtomicReference<>();
+        Thread thread = getInBackground(task, result);
+        Runnable emit = deliveries.poll(1, TimeUnit.SECONDS);
+
+        // 허가를 기다리는 동안에도 스레드 풀의 스레드는 비어 있어야 한다.
+        final CountDownLatch probe = new CountDownLatch(1);
+        pool.execute(new Runnable() {
+            @Override
+            public void run() {
+                probe.countDown();
+            }
+        });
+        assertTrue(probe.await(1, TimeUnit.SECONDS));
+        assertEquals(1, started.get());
+
+        emit.run();
+        while (thread.isAlive() || !deliveries.isEmpty()) {
+            drainDeliveries();
+            thread.join(10);
+        }
+
+        assertEquals(Arrays.asList(0, 1, 2, 3), received);
+        assertTrue(completed.get());
+    }
+
+    @Test
+    public void streamStopsWaitingForPermitWhenCancelled() throws Throwable {
+        Task<Void> task = Tasks.Parallel.parallelStream(sleepingTasks(3, 1), true, 1, new StreamListener<Integer>() {
+            @Override
+            public void onNext(int index, Integer result) {
+            }
+
+            @Override
+            public void onError(int index, Throwable t) {
+            }
+
+            @Override
+            public void onComplete() {
+                fail();
+            }
+        });
+
+        AtomicReference<Object> result = new AtomicReference<>();
+        Thread thread = getInBackground(task, result);
+        Runnable emit = deliveries.poll(1, TimeUnit.SECONDS);
+        Thread.sleep(50);
+
+        Tasks.sendCancelToCancelable(task);
+        emit.run();
+        thread.join(1000);
+
+        assertFalse(thread.isAlive());
+        assertEquals(1, started.get());
+    }
+
+    @Test
+    public void streamWaitForPermitIsBoundedByDeadline() throws Throwable {
+        Task<Void> task = Tasks.Parallel.parallelStream(sleepingTasks(3, 1), true, 1, new StreamListener<Integer>() {
+            @Override
+            public void onNext(int index, Integer result) {
+            }
+
+            @Override
+            public void onError(int index, Throwable t) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        }).timeout(100, TimeUnit.MILLISECONDS);
+
+        long start = System.nanoTime();
+        try {
+            task.get();
+            fail();
+        } catch (TimeoutException expected) {
+        }
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(1));
+        assertEquals(1, started.get());
+    }
+}
@@ -0,0 +1,164 @@
+package mj.android.utils.task;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RetryCallableTest {
+    private final AtomicInteger calls = new AtomicInteger();
+    private final TestScheduler scheduler = new TestScheduler();
+    private final AtomicReference<Object> result = new AtomicReference<>();
+
+    @Before
+    public void setUp() {
+        Schedulers.setDelivery(Schedulers.immediate());
+    }
+
+    /**
+     * failures 번 실패한 뒤 호출 횟수를 반환한다.
+     */
+    private Task<Integer> failing(final int failures) {
+        return Tasks.newTask(new Callable2<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+                int n = calls.incrementAndGet();
+                if (n <= failures)
+                    throw new IOException("failure " + n);
+                return n;
+            }
+        });
+    }
+
+    private <T> void execute(Task<T> task) {
+        task.delayed()
+                .subscribeOn(scheduler)
+                .result(new ResultListener<T>() {
+                    @Override
+                    public void onResult(T t) {
+                        result.set(t);
+                    }
+                })
+                .error(new ErrorListener() {
+                    @Override
+                    public void onError(Throwable t) {
+                        result.set(t);
+                    }
+                })
+                .execute();
+    }
+
+    @Test
+    public void getWaitsOnCallerThread() throws Throwable {
+        RetryPolicy policy = new RetryPolicy(3).backoff(30, TimeUnit.MILLISECONDS, 1);
+
+        long start = System.nanoTime();
+        assertEquals(Integer.valueOf(3), failing(2).retry(policy).get());
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(60));
+        assertEquals(2, policy.getRetryCount());
+    }
+
+    @Test
+    public void getGivesUpWhenBackoffPassesDeadline() throws Throwable {
+        RetryPolicy policy = new RetryPolicy(3).backoff(1, TimeUnit.SECONDS, 1);
+
+        try {
+            failing(1).retry(policy).timeout(100, TimeUnit.MILLISECONDS).get();
+            fail();
+        } catch (IOException expected) {
+        }
+        assertEquals(1, calls.get());
+        assertEquals(0, policy.getRetryCount());
+        assertEquals(1, policy.getGiveUpCount());
+    }
+
+    @Test
+    public void delayedReschedulesInsteadOfWaiting() {
+        RetryPolicy policy = new RetryPolicy(3).backoff(1, TimeUnit.SECONDS, 1);
+        execute(failing(1).retry(policy));
+
+        scheduler.triggerActions();
+        assertEquals(1, calls.get());
+        assertNull(result.get());
+
+        scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+        assertEquals(Integer.valueOf(2), result.get());
+    }
+
+    @Test
+    public void delayedReschedulesMappedRetry() {
+        RetryPolicy policy = new RetryPolicy(3).backoff(1, TimeUnit.SECONDS, 1);
+        execute(failing(1).retry(policy).map(new Func<Integer, String>() {
+            @Override
+            public String func(Integer integer) {
+                return "#" + integer;
+            }
+        }));
+
+        scheduler.triggerActions();
+        assertEquals(1, calls.get());
+        assertNull(result.get());
+
+        scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+        assertEquals("#2", result.get());
+    }
+
+    @Test
+    public void delayedDoesNotRetryFailedMap() {
+        RetryPolicy policy = new RetryPolicy(3).backoff(1, TimeUnit.SECONDS, 1);
+        execute(failing(0).retry(policy).map(new Func<Integer, String>() {
+            @Override
+            public String func(Integer integer) {
+                throw new IllegalStateException("map failed");
+            }
+        }));
+
+        scheduler.triggerActions();
+        assertEquals(1, calls.get());
+        assertTrue(result.get() instanceof IllegalStateException);
+        assertEquals(0, policy.getRetryCount());
+    }
+
+    @Test
+    public void nestedRetryOnPoolThreadFailsFast() {
+        RetryPolicy policy = new RetryPolicy(3).backoff(1, TimeUnit.SECONDS, 1);
+        final Task<Integer> inner = failing(1).retry(policy);
+        execute(Tasks.newTask(new Callable2<Integer>() {
+            @Override
+            public Integer call() throws Throwable {
+                return inner.get();
+            }
+        }));
+
+        long start = System.nanoTime();
+        scheduler.triggerActions();
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(500));
+        assertEquals(1, calls.get());
+        assertTrue(result.get() instanceof IOException);
+        assertEquals(1, policy.getGiveUpCount());
+    }
+
+    @Test
+    public void nestedRetryOnPoolThreadWaitsShortBackoff() {
+        RetryPolicy policy = new RetryPolicy(3).backoff(1, TimeUnit.MILLISECONDS, 1);
+        final Task<Integer> inner = failing(2).retry(policy);
+        execute(Tasks.newTask(new Callable2<Integer>() {
+            @Override
+            public Integer call() throws Throwable {
+                return inner.get();
+            }
+        }));
+
+        scheduler.triggerActions();
+        assertEquals(Integer.valueOf(3), result.get());
+        assertEquals(2, policy.getRetryCount());
+    }
+}
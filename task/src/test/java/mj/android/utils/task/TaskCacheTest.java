@@ -0,0 +1,185 @@
+package mj.android.utils.task;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+
+public class TaskCacheTest {
+    private final AtomicInteger calls = new AtomicInteger();
+    private final TestScheduler scheduler = new TestScheduler();
+    private final TaskCache cache = new TaskCache(8);
+    private ExecutorService pool;
+
+    @Before
+    public void setUp() {
+        pool = Executors.newCachedThreadPool();
+        Schedulers.setBackground(scheduler);
+        Schedulers.setDelivery(Schedulers.immediate());
+    }
+
+    @After
+    public void tearDown() {
+        Schedulers.setBackground(Schedulers.from(pool));
+        pool.shutdownNow();
+    }
+
+    private Task<Integer> counting() {
+        return Tasks.newTask(new Callable2<Integer>() {
+            @Override
+            public Integer call() {
+                return calls.incrementAndGet();
+            }
+        });
+    }
+
+    @Test
+    public void returnsCachedResultWithinTtl() throws Throwable {
+        Task<Integer> task = Tasks.cached("k", counting(), new CachePolicy(1, TimeUnit.HOURS), cache);
+
+        assertEquals(Integer.valueOf(1), task.get());
+        assertEquals(Integer.valueOf(1), task.get());
+        assertEquals(1, calls.get());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void recomputesAfterTtl() throws Throwable {
+        Task<Integer> task = Tasks.cached("k", counting(), new CachePolicy(10, TimeUnit.MILLISECONDS), cache);
+
+        assertEquals(Integer.valueOf(1), task.get());
+        Thread.sleep(30);
+        assertEquals(Integer.valueOf(2), task.get());
+        assertEquals(2, cache.getMissCount());
+    }
+
+    @Test
+    public void doesNotCacheCancelledRun() throws Throwable {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Task<Integer> task = Tasks.cached("k", Tasks.newTask(new Callable2<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+                started.countDown();
+                release.await();
+                return calls.incrementAndGet();
+            }
+        }), new CachePolicy(1, TimeUnit.HOURS), cache);
+
+        final AtomicReference<Object> first = new AtomicReference<>();
+        Thread thread = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    first.set(task.get());
+                } catch (Throwable t) {
+                    first.set(t);
+                }
+            }
+        };
+        thread.start();
+        started.await();
+        Tasks.sendCancelToCancelable(task);
+        release.countDown();
+        thread.join();
+
+        assertEquals(0, cache.size());
+        assertEquals(Integer.valueOf(2), task.get());
+        assertEquals(Integer.valueOf(2), task.get());
+    }
+
+    @Test
+    public void servesStaleResultAndRefreshes() throws Throwable {
+        Task<Integer> task = Tasks.cached("k", counting(),
+                new CachePolicy(10, TimeUnit.MILLISECONDS).staleWhileRevalidate(1, TimeUnit.HOURS), cache);
+
+        assertEquals(Integer.valueOf(1), task.get());
+        Thread.sleep(30);
+        assertEquals(Integer.valueOf(1), task.get());
+        assertEquals(Integer.valueOf(1), task.get());
+        scheduler.triggerActions();
+
+        assertEquals(2, calls.get());
+        assertEquals(Integer.valueOf(2), task.get());
+        assertEquals(2, cache.getStaleHitCount());
+    }
+
+    @Test
+    public void refreshesAgainAfterFailedRefresh() throws Throwable {
+        Task<Integer> task = Tasks.cached("k", Tasks.newTask(new Callable2<Integer>() {
+            @Override
+            public Integer call() {
+                int n = calls.incrementAndGet();
+                if (n == 2)
+                    throw new IllegalStateException("refresh failed");
+                return n;
+            }
+        }), new CachePolicy(10, TimeUnit.MILLISECONDS).staleWhileRevalidate(1, TimeUnit.HOURS), cache);
+
+        assertEquals(Integer.valueOf(1), task.get());
+        Thread.sleep(30);
+        assertEquals(Integer.valueOf(1), task.get());
+        scheduler.triggerActions();
+        assertEquals(2, calls.get());
+
+        assertEquals(Integer.valueOf(1), task.get());
+        scheduler.triggerActions();
+        assertEquals(3, calls.get());
+        assertEquals(Integer.valueOf(3), task.get());
+    }
+
+    @Test
+    public void refreshesAgainAfterRejectedRefresh() throws Throwable {
+        Task<Integer> task = Tasks.cached("k", counting(),
+                new CachePolicy(10, TimeUnit.MILLISECONDS).staleWhileRevalidate(1, TimeUnit.HOURS), cache);
+
+        assertEquals(Integer.valueOf(1), task.get());
+        Thread.sleep(30);
+
+        Schedulers.setBackground(Schedulers.from(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                throw new RejectedExecutionException("full");
+            }
+        }));
+        assertEquals(Integer.valueOf(1), task.get());
+        assertEquals(1, calls.get());
+
+        Schedulers.setBackground(scheduler);
+        assertEquals(Integer.valueOf(1), task.get());
+        scheduler.triggerActions();
+        assertEquals(Integer.valueOf(2), task.get());
+    }
+
+    @Test
+    public void invalidateRemovesEntry() throws Throwable {
+        Task<Integer> task = Tasks.cached("k", counting(), new CachePolicy(1, TimeUnit.HOURS), cache);
+
+        task.get();
+        cache.invalidate("k");
+        assertEquals(0, cache.size());
+        assertEquals(Integer.valueOf(2), task.get());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() throws Throwable {
+        TaskCache small = new TaskCache(1);
+        CachePolicy policy = new CachePolicy(1, TimeUnit.HOURS);
+
+        Tasks.cached("a", counting(), policy, small).get();
+        Tasks.cached("b", counting(), policy, small).get();
+        assertEquals(1, small.size());
+        assertEquals(1, small.getEvictionCount());
+    }
+}
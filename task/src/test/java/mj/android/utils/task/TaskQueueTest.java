@@ -0,0 +1,184 @@
+package mj.android.utils.task;
+
+import android.support.annotation.NonNull;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TaskQueueTest {
+    private final TestScheduler scheduler = new TestScheduler();
+    private final HistogramTaskMonitor monitor = new HistogramTaskMonitor();
+    private final Map<String, Completion<String>> pending = new HashMap<>();
+    private final List<String> events = new ArrayList<>();
+    private TaskQueue queue;
+
+    @Before
+    public void setUp() {
+        Schedulers.setDelivery(Schedulers.immediate());
+        Tasks.setMonitor(monitor);
+        queue = new TaskQueue(new HashMap<String, DelayedTask>()).scheduler(scheduler);
+    }
+
+    @After
+    public void tearDown() {
+        Tasks.setMonitor(TaskMonitor.NONE);
+    }
+
+    /**
+     * {@link #complete(String)} 할 때 까지 끝나지 않는 작업
+     */
+    private Task<String> async(final String name) {
+        return Tasks.fromAsync(new AsyncCallable<String>() {
+            @Override
+            public void call(@NonNull Completion<String> completion) {
+                events.add("start " + name);
+                pending.put(name, completion);
+            }
+        });
+    }
+
+    private void complete(String name) {
+        pending.remove(name).complete(name);
+        scheduler.triggerActions();
+    }
+
+    private void execute(final String tag, Task<String> task, int priority) {
+        queue.enqueue(tag, task, priority)
+                .result(new ResultListener<String>() {
+                    @Override
+                    public void onResult(String result) {
+                        events.add("result " + result);
+                    }
+                })
+                .error(new ErrorListener() {
+                    @Override
+                    public void onError(Throwable t) {
+                        events.add("error " + tag + " " + t.getClass().getSimpleName());
+                    }
+                })
+                .atLast(new Runnable() {
+                    @Override
+                    public void run() {
+                        events.add("last " + tag);
+                    }
+                })
+                .execute();
+        scheduler.triggerActions();
+    }
+
+    @Test
+    public void holdsSlotUntilAsyncTaskCompletes() {
+        queue.maxConcurrency(1);
+        execute("a", async("a"), TaskQueue.PRIORITY_NORMAL);
+        execute("b", async("b"), TaskQueue.PRIORITY_NORMAL);
+
+        assertEquals(1, queue.getInFlightCount());
+        assertEquals(1, queue.getQueueDepth());
+        assertEquals(Arrays.asList("start a"), events);
+
+        complete("a");
+        assertEquals(Arrays.asList("start a", "result a", "last a", "start b"), events);
+        assertEquals(1, queue.getInFlightCount());
+        assertEquals(0, queue.getQueueDepth());
+
+        complete("b");
+        assertEquals(0, queue.getInFlightCount());
+    }
+
+    @Test
+    public void startsHigherPriorityFirst() {
+        queue.maxConcurrency(1);
+        execute("a", async("a"), TaskQueue.PRIORITY_NORMAL);
+        execute("low", async("low"), TaskQueue.PRIORITY_LOW);
+        execute("high", async("high"), TaskQueue.PRIORITY_HIGH);
+
+        complete("a");
+        assertEquals("start high", events.get(events.size() - 1));
+        complete("high");
+        assertEquals("start low", events.get(events.size() - 1));
+    }
+
+    @Test
+    public void dropsOldestWhenBacklogIsFull() {
+        queue.maxConcurrency(1).maxBacklog(1, TaskQueue.OVERFLOW_DROP_OLDEST);
+        execute("a", async("a"), TaskQueue.PRIORITY_NORMAL);
+        execute("b", async("b"), TaskQueue.PRIORITY_NORMAL);
+        execute("c", async("c"), TaskQueue.PRIORITY_NORMAL);
+
+        assertTrue(events.contains("error b RejectedExecutionException"));
+        assertTrue(events.contains("last b"));
+        assertEquals(1, queue.getDroppedCount());
+        assertEquals(1, queue.getQueueDepth());
+        assertEquals(1, monitor.getStats("b").getErrorCount());
+
+        complete("a");
+        assertEquals("start c", events.get(events.size() - 1));
+    }
+
+    @Test
+    public void dropsIncomingLowestPriority() {
+        queue.maxConcurrency(1).maxBacklog(1, TaskQueue.OVERFLOW_DROP_LOWEST);
+        execute("a", async("a"), TaskQueue.PRIORITY_NORMAL);
+        execute("b", async("b"), TaskQueue.PRIORITY_NORMAL);
+        execute("c", async("c"), TaskQueue.PRIORITY_LOW);
+
+        assertTrue(events.contains("error c RejectedExecutionException"));
+        assertTrue(events.contains("last c"));
+        assertEquals(1, monitor.getStats("c").getErrorCount());
+
+        complete("a");
+        assertEquals("start b", events.get(events.size() - 1));
+    }
+
+    @Test
+    public void reportsTasksRejectedByScheduler() {
+        queue.scheduler(Schedulers.from(new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                throw new RejectedExecutionException("full");
+            }
+        }));
+        execute("a", async("a"), TaskQueue.PRIORITY_NORMAL);
+
+        assertEquals(Arrays.asList("error a RejectedExecutionException", "last a"), events);
+        assertEquals(0, queue.getInFlightCount());
+        assertEquals(1, queue.getDroppedCount());
+        assertEquals(1, monitor.getStats("a").getErrorCount());
+    }
+
+    @Test
+    public void holdsSlotWhileRetryWaits() {
+        queue.maxConcurrency(1);
+        final int[] calls = {0};
+        Task<String> flaky = Tasks.newTask(new Callable2<String>() {
+            @Override
+            public String call() {
+                if (++calls[0] == 1)
+                    throw new IllegalStateException("first");
+                return "r";
+            }
+        }).retry(new RetryPolicy(2).backoff(1, TimeUnit.SECONDS, 1));
+
+        execute("r", flaky, TaskQueue.PRIORITY_NORMAL);
+        assertEquals(1, queue.getInFlightCount());
+        assertEquals(1, calls[0]);
+
+        scheduler.advanceTimeBy(1, TimeUnit.SECONDS);
+        assertEquals(Arrays.asList("result r", "last r"), events);
+        assertEquals(0, queue.getInFlightCount());
+        assertEquals(1, monitor.getStats("r").getRetryCount());
+    }
+}
@@ -0,0 +1,123 @@
+package mj.android.utils.task;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TimerWheelTest {
+    private final TimerWheel wheel = TimerWheel.get();
+
+    private Runnable countDown(final CountDownLatch latch) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                latch.countDown();
+            }
+        };
+    }
+
+    /**
+     * 다른 테스트의 예약이 남아있을 수 있으므로, size 가 기대한 값이 될 때 까지 잠시 기다린다.
+     */
+    private void awaitSize(int expected) throws InterruptedException {
+        for (int i = 0; i < 50 && wheel.size() != expected; i++) {
+            Thread.sleep(2);
+        }
+        assertEquals(expected, wheel.size());
+    }
+
+    @Test
+    public void runsAfterDelay() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        long start = System.nanoTime();
+        wheel.schedule(countDown(latch), Schedulers.immediate(), 50, TimeUnit.MILLISECONDS);
+
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    @Test
+    public void cancelsOneTimeoutInSharedBucket() throws Exception {
+        final List<Integer> fired = Collections.synchronizedList(new ArrayList<Integer>());
+        final CountDownLatch latch = new CountDownLatch(2);
+        List<Cancelable> timeouts = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            final int index = i;
+            timeouts.add(wheel.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    fired.add(index);
+                    latch.countDown();
+                }
+            }, Schedulers.immediate(), 30, TimeUnit.MILLISECONDS));
+        }
+        Thread.sleep(15);
+        assertTrue(timeouts.get(1).cancel());
+
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        Thread.sleep(30);
+        Collections.sort(fired);
+        assertEquals(2, fired.size());
+        assertEquals(Integer.valueOf(0), fired.get(0));
+        assertEquals(Integer.valueOf(2), fired.get(1));
+    }
+
+    @Test
+    public void cancelledTimeoutDoesNotRun() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        Cancelable timeout = wheel.schedule(countDown(latch), Schedulers.immediate(), 30, TimeUnit.MILLISECONDS);
+
+        assertTrue(timeout.cancel());
+        assertFalse(timeout.cancel());
+        assertFalse(latch.await(80, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void cancelRemovesTimeoutFromWheel() throws Exception {
+        awaitSize(0);
+        Cancelable pending = wheel.schedule(countDown(new CountDownLatch(1)), Schedulers.immediate(), 1, TimeUnit.HOURS);
+        assertEquals(1, wheel.size());
+
+        // 다음 tick 에 wheel 로 옮겨진 뒤 취소해도 바로 제거되어야 한다.
+        Thread.sleep(30);
+        assertTrue(pending.cancel());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void cancelBeforeTransferIsDropped() throws Exception {
+        awaitSize(0);
+        Cancelable pending = wheel.schedule(countDown(new CountDownLatch(1)), Schedulers.immediate(), 1, TimeUnit.HOURS);
+        pending.cancel();
+
+        awaitSize(0);
+    }
+
+    @Test
+    public void keepsRunningAfterRejectedExecution() throws Exception {
+        final AtomicInteger rejected = new AtomicInteger();
+        wheel.schedule(countDown(new CountDownLatch(1)), new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                rejected.incrementAndGet();
+                throw new RejectedExecutionException("full");
+            }
+        }, 10, TimeUnit.MILLISECONDS);
+
+        CountDownLatch latch = new CountDownLatch(1);
+        wheel.schedule(countDown(latch), Schedulers.immediate(), 40, TimeUnit.MILLISECONDS);
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        assertEquals(1, rejected.get());
+    }
+}
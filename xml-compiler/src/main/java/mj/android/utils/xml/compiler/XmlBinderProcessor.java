@@ -0,0 +1,236 @@
+package mj.android.utils.xml.compiler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+
+/**
+ * {@code @Root} 클래스 마다 같은 패키지에 {@code <클래스 이름>$$XmlBinder} 를 생성한다.
+ * <p>
+ * 생성된 binder 는 생성자와 field 에 직접 접근하므로, private 이거나 final 인 field,
+ * 접근할 수 없는 클래스나 생성자가 있으면 binder 를 만들지 않고 XmlParser 가 reflection 을 사용하도록 둔다.
+ * 타입 변수가 있는 클래스는 raw 타입으로 다룬다.
+ */
+public class XmlBinderProcessor extends AbstractProcessor {
+    static final String ROOT = "mj.android.utils.xml.Root";
+    static final String BINDER = "mj.android.utils.xml.XmlBinder";
+    static final String SUFFIX = "$$XmlBinder";
+
+    private static final Set<String> FIELD_ANNOTATIONS = new HashSet<>(Arrays.asList(
+            "mj.android.utils.xml.Attribute",
+            "mj.android.utils.xml.Element",
+            "mj.android.utils.xml.ListContainer"
+    ));
+
+    private static final TypeKind[] PRIMITIVES = {TypeKind.INT, TypeKind.LONG, TypeKind.FLOAT, TypeKind.DOUBLE, TypeKind.BOOLEAN};
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(ROOT);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement root = processingEnv.getElementUtils().getTypeElement(ROOT);
+        if (root == null)
+            return false;
+
+        for (Element element : roundEnv.getElementsAnnotatedWith(root)) {
+            if (element.getKind() != ElementKind.CLASS)
+                continue;
+
+            TypeElement type = (TypeElement) element;
+            List<VariableElement> fields = boundFields(type);
+            String reason = unsupported(type, fields);
+            if (reason != null) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+                        type.getQualifiedName() + " : " + reason + ", XmlParser uses reflection", type);
+                continue;
+            }
+
+            try {
+                write(type, fields);
+            } catch (IOException e) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "cannot write binder : " + e, type);
+            }
+        }
+        return false;
+    }
+
+    private static List<VariableElement> boundFields(TypeElement type) {
+        List<VariableElement> fields = new ArrayList<>();
+        for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+            for (AnnotationMirror mirror : field.getAnnotationMirrors()) {
+                String name = ((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().toString();
+                if (FIELD_ANNOTATIONS.contains(name)) {
+                    fields.add(field);
+                    break;
+                }
+            }
+        }
+        return fields;
+    }
+
+    /**
+     * @return binder 를 만들 수 없는 이유. 만들 수 있으면 null
+     */
+    private static String unsupported(TypeElement type, List<VariableElement> fields) {
+        if (type.getModifiers().contains(Modifier.ABSTRACT))
+            return "abstract class";
+
+        for (Element e = type; e.getKind() != ElementKind.PACKAGE; e = e.getEnclosingElement()) {
+            if (e.getModifiers().contains(Modifier.PRIVATE))
+                return "private class";
+            if (e != type && !(e instanceof TypeElement))
+                return "local class";
+            if (e.getEnclosingElement().getKind() != ElementKind.PACKAGE && !e.getModifiers().contains(Modifier.STATIC))
+                return "inner class";
+        }
+
+        List<ExecutableElement> constructors = ElementFilter.constructorsIn(type.getEnclosedElements());
+        boolean hasConstructor = false;
+        for (ExecutableElement c : constructors) {
+            if (c.getParameters().isEmpty() && !c.getModifiers().contains(Modifier.PRIVATE))
+                hasConstructor = true;
+        }
+        if (!hasConstructor)
+            return "no accessible no-arg constructor";
+
+        for (VariableElement field : fields) {
+            Set<Modifier> modifiers = field.getModifiers();
+            if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.FINAL) || modifiers.contains(Modifier.STATIC))
+                return "field " + field.getSimpleName() + " is private, final or static";
+        }
+        return null;
+    }
+
+    private void write(TypeElement type, List<VariableElement> fields) throws IOException {
+        PackageElement pkg = processingEnv.getElementUtils().getPackageOf(type);
+        String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+        String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+        String binderName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1)) + SUFFIX;
+        String typeName = type.getQualifiedName().toString();
+
+        StringBuilder b = new StringBuilder();
+        b.append("// Generated by ").append(XmlBinderProcessor.class.getName()).append(". Do not modify.\n");
+        if (!packageName.isEmpty())
+            b.append("package ").append(packageName).append(";\n");
+        b.append('\n');
+        b.append("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+        b.append("public final class ").append(binderName).append(" implements ").append(BINDER).append('<').append(typeName).append("> {\n");
+
+        b.append("    @Override\n");
+        b.append("    public ").append(typeName).append(" newInstance() {\n");
+        b.append("        return new ").append(typeName).append("();\n");
+        b.append("    }\n\n");
+
+        b.append("    @Override\n");
+        b.append("    public int indexOf(String field) {\n");
+        b.append("        switch (field) {\n");
+        for (int i = 0; i < fields.size(); i++) {
+            b.append("            case \"").append(fields.get(i).getSimpleName()).append("\":\n");
+            b.append("                return ").append(i).append(";\n");
+        }
+        b.append("            default:\n");
+        b.append("                return -1;\n");
+        b.append("        }\n");
+        b.append("    }\n");
+
+        Types types = processingEnv.getTypeUtils();
+        writeSetter(b, types, typeName, "set", "Object", fields, null);
+        for (TypeKind kind : PRIMITIVES) {
+            String name = kind.name().toLowerCase(Locale.US);
+            writeSetter(b, types, typeName, "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1), name, fields, kind);
+        }
+        b.append("}\n");
+
+        String fileName = packageName.isEmpty() ? binderName : packageName + "." + binderName;
+        Writer writer = processingEnv.getFiler().createSourceFile(fileName, type).openWriter();
+        try {
+            writer.write(b.toString());
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * @param kind null 이면 모든 field 에 값을 넣는 {@code set(T, int, Object)} 를 만든다.
+     */
+    private static void writeSetter(StringBuilder b, Types types, String typeName, String method, String valueType, List<VariableElement> fields, TypeKind kind) {
+        b.append('\n');
+        b.append("    @Override\n");
+        b.append("    public void ").append(method).append('(').append(typeName).append(" item, int index, ").append(valueType).append(" value) {\n");
+        b.append("        switch (index) {\n");
+        for (int i = 0; i < fields.size(); i++) {
+            VariableElement field = fields.get(i);
+            TypeMirror type = field.asType();
+            if (kind != null && type.getKind() != kind)
+                continue;
+
+            b.append("            case ").append(i).append(":\n");
+            b.append("                item.").append(field.getSimpleName()).append(" = ");
+            if (kind == null)
+                b.append('(').append(castType(types, type)).append(") ");
+            b.append("value;\n");
+            b.append("                return;\n");
+        }
+        b.append("            default:\n");
+        b.append("                throw new IllegalArgumentException(\"").append(method).append(" : \" + index);\n");
+        b.append("        }\n");
+        b.append("    }\n");
+    }
+
+    /**
+     * binder 는 타입 변수가 없는 raw 타입으로 @Root 클래스를 다루므로, 타입 변수나 타입 인자가 있는 field 는 erasure 로 cast 한다.
+     */
+    private static String castType(Types types, TypeMirror type) {
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return "java.lang.Boolean";
+            case BYTE:
+                return "java.lang.Byte";
+            case SHORT:
+                return "java.lang.Short";
+            case CHAR:
+                return "java.lang.Character";
+            case INT:
+                return "java.lang.Integer";
+            case LONG:
+                return "java.lang.Long";
+            case FLOAT:
+                return "java.lang.Float";
+            case DOUBLE:
+                return "java.lang.Double";
+            default:
+                return types.erasure(type).toString();
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package mj.android.utils.xml.compiler;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class XmlBinderProcessorTest {
+    /**
+     * xml 모듈은 Android 라이브러리이므로, processor 가 이름으로 찾는 타입만 같은 패키지에 다시 선언한다.
+     */
+    private static final String[][] LIBRARY = {
+            {"mj.android.utils.xml.Root", "package mj.android.utils.xml; public @interface Root { String name() default \"\"; }"},
+            {"mj.android.utils.xml.Element", "package mj.android.utils.xml; public @interface Element { String name() default \"\"; }"},
+            {"mj.android.utils.xml.Attribute", "package mj.android.utils.xml; public @interface Attribute { String name() default \"\"; }"},
+            {"mj.android.utils.xml.ListContainer", "package mj.android.utils.xml; public @interface ListContainer { String name() default \"\"; }"},
+            {"mj.android.utils.xml.XmlBinder", "package mj.android.utils.xml; public interface XmlBinder<T> {"
+                    + " T newInstance(); int indexOf(String field); void set(T item, int index, Object value);"
+                    + " void setInt(T item, int index, int value); void setLong(T item, int index, long value);"
+                    + " void setFloat(T item, int index, float value); void setDouble(T item, int index, double value);"
+                    + " void setBoolean(T item, int index, boolean value); }"},
+    };
+
+    private File out;
+
+    @Before
+    public void setUp() throws Exception {
+        out = File.createTempFile("binder", "");
+        assertTrue(out.delete() && out.mkdir());
+    }
+
+    @After
+    public void tearDown() {
+        delete(out);
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        //noinspection ResultOfMethodCallIgnored
+        file.delete();
+    }
+
+    private static JavaFileObject source(String className, final String code) {
+        return new SimpleJavaFileObject(URI.create("string:///" + className.replace('.', '/') + ".java"), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return code;
+            }
+        };
+    }
+
+    /**
+     * @return 컴파일된 클래스를 읽는 ClassLoader
+     */
+    private ClassLoader compile(String... classes) throws Exception {
+        List<JavaFileObject> sources = new ArrayList<>();
+        for (String[] library : LIBRARY) {
+            sources.add(source(library[0], library[1]));
+        }
+        for (int i = 0; i < classes.length; i += 2) {
+            sources.add(source(classes[i], classes[i + 1]));
+        }
+
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        StandardJavaFileManager files = compiler.getStandardFileManager(diagnostics, null, null);
+        try {
+            JavaCompiler.CompilationTask task = compiler.getTask(null, files, diagnostics,
+                    Arrays.asList("-d", out.getPath(), "-s", out.getPath()),
+                    null, sources);
+            task.setProcessors(Collections.singletonList(new XmlBinderProcessor()));
+            boolean success = task.call();
+
+            StringBuilder errors = new StringBuilder();
+            for (Diagnostic<? extends JavaFileObject> d : diagnostics.getDiagnostics()) {
+                if (d.getKind() == Diagnostic.Kind.ERROR)
+                    errors.append(d).append('\n');
+            }
+            assertTrue(errors.toString(), success);
+        } finally {
+            files.close();
+        }
+        return new URLClassLoader(new URL[]{out.toURI().toURL()}, getClass().getClassLoader());
+    }
+
+    private static Object invoke(Object target, String method, Object... args) throws Exception {
+        for (Method m : target.getClass().getMethods()) {
+            if (m.getName().equals(method) && m.getParameterTypes().length == args.length && !m.isBridge())
+                return m.invoke(target, args);
+        }
+        throw new NoSuchMethodException(method);
+    }
+
+    private static Object field(Object target, String name) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        return field.get(target);
+    }
+
+    @Test
+    public void bindsFieldsWithoutReflection() throws Exception {
+        ClassLoader loader = compile("test.Item", "package test;\n"
+                + "import mj.android.utils.xml.*;\n"
+                + "import java.util.List;\n"
+                + "@Root public class Item {\n"
+                + "    @Attribute public int count;\n"
+                + "    @Attribute boolean flag;\n"
+                + "    @Element String name;\n"
+                + "    @ListContainer List<String> tags;\n"
+                + "    String ignored;\n"
+                + "}\n");
+
+        Object binder = loader.loadClass("test.Item$$XmlBinder").newInstance();
+        Object item = invoke(binder, "newInstance");
+        assertEquals(-1, invoke(binder, "indexOf", "ignored"));
+
+        invoke(binder, "setInt", item, invoke(binder, "indexOf", "count"), 3);
+        invoke(binder, "setBoolean", item, invoke(binder, "indexOf", "flag"), true);
+        invoke(binder, "set", item, invoke(binder, "indexOf", "name"), "n");
+        invoke(binder, "set", item, invoke(binder, "indexOf", "tags"), Arrays.asList("a", "b"));
+
+        assertEquals(3, field(item, "count"));
+        assertEquals(true, field(item, "flag"));
+        assertEquals("n", field(item, "name"));
+        assertEquals(Arrays.asList("a", "b"), field(item, "tags"));
+    }
+
+    @Test
+    public void bindsTypeVariableFieldsThroughErasure() throws Exception {
+        ClassLoader loader = compile("test.Box", "package test;\n"
+                + "import mj.android.utils.xml.*;\n"
+                + "import java.util.List;\n"
+                + "@Root public class Box<T, N extends Number> {\n"
+                + "    @Element T value;\n"
+                + "    @Element N number;\n"
+                + "    @ListContainer List<T> values;\n"
+                + "}\n");
+
+        Object binder = loader.loadClass("test.Box$$XmlBinder").newInstance();
+        Object box = invoke(binder, "newInstance");
+        invoke(binder, "set", box, invoke(binder, "indexOf", "value"), "v");
+        invoke(binder, "set", box, invoke(binder, "indexOf", "number"), 7);
+        invoke(binder, "set", box, invoke(binder, "indexOf", "values"), Collections.singletonList("w"));
+
+        assertEquals("v", field(box, "value"));
+        assertEquals(7, field(box, "number"));
+        assertEquals(Collections.singletonList("w"), field(box, "values"));
+    }
+
+    @Test
+    public void bindsNestedStaticClass() throws Exception {
+        ClassLoader loader = compile("test.Outer", "package test;\n"
+                + "import mj.android.utils.xml.*;\n"
+                + "public class Outer {\n"
+                + "    @Root public static class Inner { @Element String name; }\n"
+                + "}\n");
+
+        Object binder = loader.loadClass("test.Outer$Inner$$XmlBinder").newInstance();
+        Object inner = invoke(binder, "newInstance");
+        invoke(binder, "set", inner, invoke(binder, "indexOf", "name"), "n");
+        assertEquals("n", field(inner, "name"));
+    }
+
+    @Test
+    public void leavesUnsupportedClassesToReflection() throws Exception {
+        compile("test.Hidden", "package test;\n"
+                        + "import mj.android.utils.xml.*;\n"
+                        + "@Root public class Hidden { @Element private String name; }\n",
+                "test.Immutable", "package test;\n"
+                        + "import mj.android.utils.xml.*;\n"
+                        + "@Root public class Immutable { @Element final String name = null; }\n",
+                "test.NoDefault", "package test;\n"
+                        + "import mj.android.utils.xml.*;\n"
+                        + "@Root public class NoDefault { NoDefault(int a) {} @Element String name; }\n",
+                "test.Holder", "package test;\n"
+                        + "import mj.android.utils.xml.*;\n"
+                        + "public class Holder { @Root class Inner { @Element String name; } }\n");
+
+        assertFalse(new File(out, "test/Hidden$$XmlBinder.class").exists());
+        assertFalse(new File(out, "test/Immutable$$XmlBinder.class").exists());
+        assertFalse(new File(out, "test/NoDefault$$XmlBinder.class").exists());
+        assertFalse(new File(out, "test/Holder$Inner$$XmlBinder.class").exists());
+    }
+}
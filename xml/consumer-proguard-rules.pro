@@ -0,0 +1,23 @@
+# 이 라이브러리를 사용하는 앱에 적용되는 ProGuard 규칙.
+# XmlParser 는 annotation 과 field 이름, 리스트의 generic 타입을 reflection 으로 읽는다.
+-keepattributes *Annotation*, Signature
+
+# xml-compiler 가 생성한 binder 는 <클래스 이름>$$XmlBinder 라는 이름으로 찾으므로,
+# binder 와 @Root 클래스의 이름을 유지한다.
+-keep class **$$XmlBinder { *; }
+-keepnames @mj.android.utils.xml.Root class *
+-keepclassmembers @mj.android.utils.xml.Root class * {
+    <init>();
+}
+
+# annotation 이 붙은 field 는 이름으로 찾는다.
+-keepclassmembers class * {
+    @mj.android.utils.xml.Element <fields>;
+    @mj.android.utils.xml.Attribute <fields>;
+    @mj.android.utils.xml.ListContainer <fields>;
+}
+
+# @Convert 로 지정한 Converter 는 reflection 으로 생성한다.
+-keep class * implements mj.android.utils.xml.Converter {
+    <init>();
+}
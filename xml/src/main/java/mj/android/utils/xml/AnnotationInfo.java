@@ -2,18 +2,43 @@ package mj.android.utils.xml;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.ParameterizedType;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 class AnnotationInfo<T> {
+    private static final ConcurrentHashMap<Class<?>, AnnotationInfo<?>> CACHE = new ConcurrentHashMap<>();
+
     public final String root;
     public final String charset;
     public final Map<String, ElementInfo> elementInfoMap = new HashMap<>();
+    public final Map<String, AttributeInfo> attributeInfoMap = new HashMap<>();
     public final Map<String, ListAnnotationInfo<?>> listInfoMap = new HashMap<>();
     public final Class<? extends T> clazz;
+    /**
+     * 생성된 binder. 없으면 null
+     */
+    public final XmlBinder<T> binder;
 
-    AnnotationInfo(Class<T> clazz) {
+    /**
+     * 클래스의 annotation 정보를 반환한다. 클래스 마다 한 번만 읽으며, 모든 XmlParser 가 공유한다.
+     */
+    static <T> AnnotationInfo<T> of(Class<T> clazz) {
+        //noinspection unchecked
+        AnnotationInfo<T> info = (AnnotationInfo<T>) CACHE.get(clazz);
+        if (info == null) {
+            AnnotationInfo<T> created = new AnnotationInfo<>(clazz);
+            //noinspection unchecked
+            info = (AnnotationInfo<T>) CACHE.putIfAbsent(clazz, created);
+            if (info == null)
+                info = created;
+        }
+        return info;
+    }
+
+    private AnnotationInfo(Class<T> clazz) {
         this.clazz = clazz;
         Annotation[] annotations = clazz.getAnnotations();
         String root = null, charset = null;
@@ -32,6 +57,7 @@ class AnnotationInfo<T> {
 
         this.root = root;
         this.charset = charset.length() == 0 ? null : charset;
+        this.binder = findBinder(clazz);
 
         Field[] fields = clazz.getDeclaredFields();
         for (Field field : fields) {
@@ -44,14 +70,33 @@ class AnnotationInfo<T> {
             for (Annotation annotation : fieldAnnotations) {
                 if (annotation instanceof ListContainer) {
                     String containerName = ((ListContainer) annotation).name();
-                    listInfoMap.put(containerName, new ListAnnotationInfo<>((Class<?>) ((ParameterizedType) field.getGenericType()).getActualTypeArguments()[0], field));
+                    listInfoMap.put(containerName, new ListAnnotationInfo<>((Class<?>) ((ParameterizedType) field.getGenericType()).getActualTypeArguments()[0], field, binder));
                 } else if (annotation instanceof Element) {
-                    ElementInfo elementInfo = new ElementInfo(field, (Element) annotation);
+                    ElementInfo elementInfo = new ElementInfo(field, (Element) annotation, binder);
                     elementInfoMap.put(elementInfo.name, elementInfo);
+                } else if (annotation instanceof Attribute) {
+                    AttributeInfo attributeInfo = new AttributeInfo(field, (Attribute) annotation, binder);
+                    attributeInfoMap.put(attributeInfo.name, attributeInfo);
                 }
             }
 
         }
 
     }
+
+    private static <T> XmlBinder<T> findBinder(Class<T> clazz) {
+        try {
+            //noinspection unchecked
+            return (XmlBinder<T>) Class.forName(clazz.getName() + "$$XmlBinder", true, clazz.getClassLoader()).newInstance();
+        } catch (ClassNotFoundException e) {
+            return null;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    T newInstance() throws InstantiationException, NoSuchMethodException, InvocationTargetException, IllegalAccessException {
+        return binder != null ? binder.newInstance() : XmlParser.<T>newInstance(clazz);
+    }
 }
@@ -0,0 +1,15 @@
+package mj.android.utils.xml;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 클래스에 해당하는 요소의 속성 값을 넣을 field. name 을 지정하지 않으면 field 이름을 사용한다.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface Attribute {
+    String name() default "";
+}
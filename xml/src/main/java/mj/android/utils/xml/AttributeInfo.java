@@ -0,0 +1,10 @@
+package mj.android.utils.xml;
+
+import java.lang.reflect.Field;
+
+class AttributeInfo extends ValueInfo {
+
+    AttributeInfo(Field field, Attribute attribute, XmlBinder<?> binder) {
+        super(field, attribute.name().length() == 0 ? field.getName() : attribute.name(), binder);
+    }
+}
@@ -0,0 +1,16 @@
+package mj.android.utils.xml;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * {@link Element} 나 {@link Attribute} field 의 값을 주어진 {@link Converter} 로 변환한다.
+ * Converter 는 인자 없는 생성자를 가져야 하며, field 마다 한 번만 만들어진다.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface Convert {
+    Class<? extends Converter<?>> value();
+}
@@ -0,0 +1,12 @@
+package mj.android.utils.xml;
+
+/**
+ * 요소의 text 나 속성 값을 field 의 타입으로 변환한다. {@link Convert} 로 지정한다.
+ * 여러 스레드에서 동시에 호출될 수 있다.
+ */
+public interface Converter<T> {
+    /**
+     * @param text 요소에 text 가 없으면 null
+     */
+    T read(String text) throws Exception;
+}
@@ -5,6 +5,9 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
+/**
+ * 클래스에 해당하는 요소의 하위 요소 값을 넣을 field. 이전 버전과 같이 name 은 field 이름으로 대신하지 않으므로 반드시 지정한다.
+ */
 @Retention(RetentionPolicy.RUNTIME)
 @Target(ElementType.FIELD)
 public @interface Element {
@@ -2,16 +2,24 @@ package mj.android.utils.xml;
 
 import java.lang.reflect.Field;
 
-class ElementInfo {
-    Field field;
-    String name;
-    boolean cdata;
-    boolean require;
+class ElementInfo extends ValueInfo {
+    final boolean cdata;
+    final boolean require;
+    private volatile AnnotationInfo<?> nested;
 
-    public ElementInfo(Field field, Element element) {
-        this.field = field;
-        this.name = element.name();
+    public ElementInfo(Field field, Element element, XmlBinder<?> binder) {
+        super(field, element.name(), binder);
         this.cdata = element.cdata();
         this.require = element.require();
     }
+
+    /**
+     * {@link #OBJECT} 인 field 의 타입 정보. 자기 자신을 field 로 갖는 클래스도 있으므로 처음 사용할 때 가져온다.
+     */
+    AnnotationInfo<?> nested() {
+        AnnotationInfo<?> info = nested;
+        if (info == null)
+            nested = info = AnnotationInfo.of(field.getType());
+        return info;
+    }
 }
@@ -0,0 +1,62 @@
+package mj.android.utils.xml;
+
+import java.lang.reflect.Field;
+
+/**
+ * field 에 값을 넣는다. 생성된 {@link XmlBinder} 가 있으면 사용하고, 없으면 reflection 을 사용한다.
+ */
+class FieldAccessor {
+    final Field field;
+    private final XmlBinder<Object> binder;
+    private final int index;
+
+    FieldAccessor(Field field, XmlBinder<?> binder) {
+        this.field = field;
+        int i = binder == null ? -1 : binder.indexOf(field.getName());
+        //noinspection unchecked
+        this.binder = i < 0 ? null : (XmlBinder<Object>) binder;
+        this.index = i;
+    }
+
+    void set(Object item, Object value) throws IllegalAccessException {
+        if (binder != null)
+            binder.set(item, index, value);
+        else
+            field.set(item, value);
+    }
+
+    void setInt(Object item, int value) throws IllegalAccessException {
+        if (binder != null)
+            binder.setInt(item, index, value);
+        else
+            field.setInt(item, value);
+    }
+
+    void setLong(Object item, long value) throws IllegalAccessException {
+        if (binder != null)
+            binder.setLong(item, index, value);
+        else
+            field.setLong(item, value);
+    }
+
+    void setFloat(Object item, float value) throws IllegalAccessException {
+        if (binder != null)
+            binder.setFloat(item, index, value);
+        else
+            field.setFloat(item, value);
+    }
+
+    void setDouble(Object item, double value) throws IllegalAccessException {
+        if (binder != null)
+            binder.setDouble(item, index, value);
+        else
+            field.setDouble(item, value);
+    }
+
+    void setBoolean(Object item, boolean value) throws IllegalAccessException {
+        if (binder != null)
+            binder.setBoolean(item, index, value);
+        else
+            field.setBoolean(item, value);
+    }
+}
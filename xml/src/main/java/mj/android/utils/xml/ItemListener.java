@@ -0,0 +1,8 @@
+package mj.android.utils.xml;
+
+/**
+ * {@link XmlParser#stream(java.io.InputStream, Class, ItemListener)} 에서 목록 항목을 읽는 대로 전달받는다.
+ */
+public interface ItemListener<E> {
+    void onItem(E item) throws Exception;
+}
@@ -2,12 +2,25 @@ package mj.android.utils.xml;
 
 import java.lang.reflect.Field;
 
-class ListAnnotationInfo<T> extends AnnotationInfo<T> {
+class ListAnnotationInfo<T> {
     public final Field field;
+    public final FieldAccessor accessor;
+    public final Class<T> itemClass;
+    private volatile AnnotationInfo<T> itemInfo;
 
-    ListAnnotationInfo(Class<T> clazz, Field field) {
-        super(clazz);
+    ListAnnotationInfo(Class<T> itemClass, Field field, XmlBinder<?> binder) {
+        this.itemClass = itemClass;
         this.field = field;
+        this.accessor = new FieldAccessor(field, binder);
     }
 
+    /**
+     * 자기 자신을 항목으로 갖는 클래스도 있으므로, 항목의 정보는 처음 사용할 때 가져온다.
+     */
+    AnnotationInfo<T> itemInfo() {
+        AnnotationInfo<T> info = itemInfo;
+        if (info == null)
+            itemInfo = info = AnnotationInfo.of(itemClass);
+        return info;
+    }
 }
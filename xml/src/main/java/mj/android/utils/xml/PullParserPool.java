@@ -0,0 +1,60 @@
+package mj.android.utils.xml;
+
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+import org.xmlpull.v1.XmlPullParserFactory;
+
+import java.io.InputStream;
+import java.io.Reader;
+
+/**
+ * 스레드 마다 하나의 XmlPullParser 를 두고 {@link XmlPullParser#setInput(InputStream, String)} 로 다시 사용한다.
+ * <p>
+ * factory 는 한 번만 만들고 설정한다. 같은 스레드에서 이미 사용중이면 (열려 있는 {@link XmlStream}, Converter 안의 parse 등)
+ * 새 parser 를 만들고, 반환될 때 스레드에 비어 있는 자리가 있으면 그 곳에 둔다.
+ */
+final class PullParserPool {
+    private static final ThreadLocal<XmlPullParser> IDLE = new ThreadLocal<>();
+    private static volatile XmlPullParserFactory factory;
+
+    private PullParserPool() {
+    }
+
+    private static XmlPullParserFactory factory() throws XmlPullParserException {
+        XmlPullParserFactory f = factory;
+        if (f == null) {
+            synchronized (PullParserPool.class) {
+                if ((f = factory) == null) {
+                    f = XmlPullParserFactory.newInstance();
+                    f.setNamespaceAware(false);
+                    factory = f;
+                }
+            }
+        }
+        return f;
+    }
+
+    static XmlPullParser obtain(InputStream is, String charset) throws XmlPullParserException {
+        XmlPullParser parser = IDLE.get();
+        if (parser != null)
+            IDLE.set(null);
+        else
+            parser = factory().newPullParser();
+
+        parser.setInput(is, charset);
+        return parser;
+    }
+
+    /**
+     * 읽던 입력을 놓고 현재 스레드에 둔다.
+     */
+    static void recycle(XmlPullParser parser) {
+        try {
+            parser.setInput((Reader) null);
+        } catch (Exception e) {
+            return;
+        }
+        if (IDLE.get() == null)
+            IDLE.set(parser);
+    }
+}
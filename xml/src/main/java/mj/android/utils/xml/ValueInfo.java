@@ -0,0 +1,110 @@
+package mj.android.utils.xml;
+
+import java.lang.reflect.Field;
+
+/**
+ * 요소의 text 나 속성 값을 넣을 field. 값을 변환하는 방법은 metadata 를 만들 때 한 번 정한다.
+ */
+class ValueInfo {
+    static final int UNKNOWN = 0, STRING = 1, INT = 2, LONG = 3, FLOAT = 4, DOUBLE = 5, BOOLEAN = 6, ENUM = 7, CONVERTER = 8, OBJECT = 9;
+
+    final Field field;
+    final FieldAccessor accessor;
+    final String name;
+    final int kind;
+    private final Converter<?> converter;
+
+    ValueInfo(Field field, String name, XmlBinder<?> binder) {
+        this.field = field;
+        this.accessor = new FieldAccessor(field, binder);
+        this.name = name;
+
+        Convert convert = field.getAnnotation(Convert.class);
+        this.converter = convert == null ? null : newConverter(convert.value());
+        this.kind = converter != null ? CONVERTER : kindOf(field.getType());
+    }
+
+    private static Converter<?> newConverter(Class<? extends Converter<?>> type) {
+        try {
+            return XmlParser.newInstance(type);
+        } catch (Exception e) {
+            throw new IllegalArgumentException(type.getName() + " : cannot create converter", e);
+        }
+    }
+
+    private static int kindOf(Class<?> type) {
+        if (type == String.class)
+            return STRING;
+        if (type == int.class)
+            return INT;
+        if (type == long.class)
+            return LONG;
+        if (type == float.class)
+            return FLOAT;
+        if (type == double.class)
+            return DOUBLE;
+        if (type == boolean.class)
+            return BOOLEAN;
+        if (type.isEnum())
+            return ENUM;
+        if (type.isAnnotationPresent(Root.class))
+            return OBJECT;
+        return UNKNOWN;
+    }
+
+    /**
+     * text 를 field 의 타입으로 변환하여 넣는다.
+     *
+     * @return 변환할 수 없는 타입이면 false
+     * @throws IllegalArgumentException 값을 변환할 수 없는 경우
+     */
+    boolean set(Object item, String text) throws IllegalAccessException {
+        switch (kind) {
+            case STRING:
+                accessor.set(item, text == null ? "" : text);
+                return true;
+
+            case INT:
+                accessor.setInt(item, text == null ? 0 : Integer.parseInt(text));
+                return true;
+
+            case LONG:
+                accessor.setLong(item, text == null ? 0 : Long.parseLong(text));
+                return true;
+
+            case FLOAT:
+                accessor.setFloat(item, text == null ? 0 : Float.parseFloat(text));
+                return true;
+
+            case DOUBLE:
+                accessor.setDouble(item, text == null ? 0 : Double.parseDouble(text));
+                return true;
+
+            case BOOLEAN:
+                accessor.setBoolean(item, text != null && ("true".equalsIgnoreCase(text.trim()) || "1".equals(text.trim())));
+                return true;
+
+            case ENUM:
+                try {
+                    //noinspection unchecked
+                    accessor.set(item, text == null ? null : Enum.valueOf((Class<Enum>) field.getType(), text.trim()));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException(name + " : cannot convert " + text, e);
+                }
+                return true;
+
+            case CONVERTER:
+                try {
+                    accessor.set(item, converter.read(text));
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new IllegalArgumentException(name + " : cannot convert " + text, e);
+                }
+                return true;
+
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package mj.android.utils.xml;
+
+/**
+ * {@link Root} 클래스의 객체를 만들고 field 에 값을 넣는다.
+ * <p>
+ * xml-compiler 의 annotation processor 가 같은 패키지에 {@code <클래스 이름>$$XmlBinder} 로 생성한다.
+ * 생성된 binder 가 없으면 {@link XmlParser} 는 reflection 을 사용한다.
+ * <p>
+ * binder 를 생성하려면 @Root 클래스가 있는 모듈에 {@code apt project(':xml-compiler')} 를 추가한다.
+ * 필요한 ProGuard 규칙은 xml 모듈의 consumer-proguard-rules.pro 로 함께 적용된다.
+ */
+public interface XmlBinder<T> {
+    T newInstance();
+
+    /**
+     * metadata 를 만들 때 한 번 호출된다.
+     *
+     * @return field 의 번호. 값을 넣을 수 없는 field 이면 -1
+     */
+    int indexOf(String field);
+
+    void set(T item, int index, Object value);
+
+    void setInt(T item, int index, int value);
+
+    void setLong(T item, int index, long value);
+
+    void setFloat(T item, int index, float value);
+
+    void setDouble(T item, int index, double value);
+
+    void setBoolean(T item, int index, boolean value);
+}
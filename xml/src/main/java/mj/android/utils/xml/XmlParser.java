@@ -3,14 +3,15 @@ package mj.android.utils.xml;
 
 import org.xmlpull.v1.XmlPullParser;
 import org.xmlpull.v1.XmlPullParserException;
-import org.xmlpull.v1.XmlPullParserFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 
 public class XmlParser<T> {
     private Class<T> clazz;
@@ -25,45 +26,122 @@ public class XmlParser<T> {
         if (readAnnotationOnInit) initAnnotationInfo();
     }
 
+    /**
+     * 주어진 클래스와 그 하위 객체, 목록 항목 클래스의 annotation 정보를 미리 읽어 둔다.
+     * 앱 시작 시에 백그라운드에서 호출하면 첫 parse 에서 reflection 비용이 들지 않는다.
+     */
+    public static void warmUp(Class<?>... classes) {
+        HashSet<Class<?>> visited = new HashSet<>();
+        for (Class<?> c : classes) {
+            warmUp(AnnotationInfo.of(c), visited);
+        }
+    }
+
+    private static void warmUp(AnnotationInfo<?> info, Set<Class<?>> visited) {
+        if (!visited.add(info.clazz))
+            return;
+
+        for (ListAnnotationInfo<?> listInfo : info.listInfoMap.values()) {
+            warmUp(listInfo.itemInfo(), visited);
+        }
+        for (ElementInfo elementInfo : info.elementInfoMap.values()) {
+            if (elementInfo.kind == ValueInfo.OBJECT)
+                warmUp(elementInfo.nested(), visited);
+        }
+    }
+
     private void initAnnotationInfo() {
         if (annotationInfo == null) {
-            synchronized (this) {
-                if (annotationInfo == null) {
-                    annotationInfo = new AnnotationInfo<>(clazz);
-                }
-            }
+            annotationInfo = AnnotationInfo.of(clazz);
         }
     }
 
     public T parse(InputStream is) throws Exception {
         initAnnotationInfo();
 
+        XmlPullParser pullParser = null;
         try {
-            XmlPullParser pullParser = XmlPullParserFactory.newInstance().newPullParser();
-
-            pullParser.setFeature(XmlPullParser.FEATURE_PROCESS_NAMESPACES, false);
-            pullParser.setInput(is, annotationInfo.charset);
+            pullParser = PullParserPool.obtain(is, annotationInfo.charset);
             pullParser.nextTag();
 
             return parseContent(pullParser, annotationInfo);
 
         } finally {
-            if (is != null) {
-                try {
-                    is.close();
-                } catch (IOException e) {
-                    //ignored
-                }
+            if (pullParser != null)
+                PullParserPool.recycle(pullParser);
+            closeQuietly(is);
+        }
+
+    }
+
+    /**
+     * 문서 안의 목록 항목을 읽는 대로 하나씩 반환하는 {@link XmlStream} 을 만든다. 목록 전체를 메모리에 담지 않는다.
+     * <p>
+     * 루트 클래스에서 itemClass 를 항목으로 갖는 {@link ListContainer} 의 항목만 반환하며, 나머지 요소는 건너뛴다.
+     * 다 읽거나 {@link XmlStream#close()} 하면 is 를 닫는다.
+     */
+    public <E> XmlStream<E> stream(InputStream is, Class<E> itemClass) throws Exception {
+        initAnnotationInfo();
+
+        HashSet<String> containers = new HashSet<>();
+        AnnotationInfo<E> itemInfo = null;
+        for (Map.Entry<String, ListAnnotationInfo<?>> entry : annotationInfo.listInfoMap.entrySet()) {
+            if (entry.getValue().itemClass == itemClass) {
+                containers.add(entry.getKey());
+                //noinspection unchecked
+                itemInfo = (AnnotationInfo<E>) entry.getValue().itemInfo();
+            }
+        }
+        if (itemInfo == null)
+            throw new IllegalArgumentException(clazz.getName() + " : cannot find @ListContainer of " + itemClass.getName());
+
+        try {
+            return new XmlStream<>(PullParserPool.obtain(is, annotationInfo.charset), is, annotationInfo.root, containers, itemInfo);
+        } catch (Exception e) {
+            closeQuietly(is);
+            throw e;
+        }
+    }
+
+    /**
+     * {@link #stream(InputStream, Class)} 의 항목을 읽는 대로 listener 에 전달한다. 끝나면 is 를 닫는다.
+     */
+    public <E> void stream(InputStream is, Class<E> itemClass, ItemListener<E> listener) throws Exception {
+        XmlStream<E> stream = stream(is, itemClass);
+        try {
+            E item;
+            while ((item = stream.read()) != null) {
+                listener.onItem(item);
             }
+        } finally {
+            stream.close();
         }
+    }
 
+    static void closeQuietly(InputStream is) {
+        if (is != null) {
+            try {
+                is.close();
+            } catch (IOException e) {
+                //ignored
+            }
+        }
     }
 
     protected static <T> T parseContent(XmlPullParser parser, AnnotationInfo<T> annotationInfo) throws IOException, XmlPullParserException, IllegalAccessException, InstantiationException, NoSuchMethodException, InvocationTargetException {
 
         parser.require(XmlPullParser.START_TAG, null, annotationInfo.root);
 
-        T item = newInstance(annotationInfo.clazz);
+        return parseObject(parser, annotationInfo);
+    }
+
+    /**
+     * 현재 요소의 속성과 하위 요소를 새 객체에 담는다. 요소의 이름은 확인하지 않는다.
+     */
+    private static <T> T parseObject(XmlPullParser parser, AnnotationInfo<T> annotationInfo) throws IOException, XmlPullParserException, IllegalAccessException, InstantiationException, NoSuchMethodException, InvocationTargetException {
+
+        T item = annotationInfo.newInstance();
+        readAttributes(parser, annotationInfo, item);
 
         while (parser.next() != XmlPullParser.END_TAG) {
             if (parser.getEventType() != XmlPullParser.START_TAG) {
@@ -71,11 +149,12 @@ public class XmlParser<T> {
             }
 
             String name = parser.getName();
-            if (annotationInfo.elementInfoMap.containsKey(name)) {
-                ElementInfo info = annotationInfo.elementInfoMap.get(name);
+            ElementInfo info = annotationInfo.elementInfoMap.get(name);
+            ListAnnotationInfo<?> listInfo;
+            if (info != null) {
                 readElement(parser, info, item);
-            } else if (annotationInfo.listInfoMap.containsKey(name)) {
-                parseList(parser, annotationInfo.listInfoMap.get(name), item);
+            } else if ((listInfo = annotationInfo.listInfoMap.get(name)) != null) {
+                parseList(parser, listInfo, item);
             } else {
                 XmlParserUtil.skip(parser);
             }
@@ -85,8 +164,8 @@ public class XmlParser<T> {
         return item;
     }
 
-    private static <T> void parseList(XmlPullParser parser, ListAnnotationInfo<T> annotationInfo, Object item) throws IOException, XmlPullParserException, IllegalAccessException, InstantiationException, NoSuchMethodException, InvocationTargetException {
-        Field field = annotationInfo.field;
+    private static <T> void parseList(XmlPullParser parser, ListAnnotationInfo<T> listInfo, Object item) throws IOException, XmlPullParserException, IllegalAccessException, InstantiationException, NoSuchMethodException, InvocationTargetException {
+        AnnotationInfo<T> annotationInfo = listInfo.itemInfo();
         ArrayList<T> list = new ArrayList<>();
 
         while (parser.next() != XmlPullParser.END_TAG) {
@@ -94,44 +173,42 @@ public class XmlParser<T> {
                 continue;
             }
 
-            parser.require(XmlPullParser.START_TAG, null, annotationInfo.root);
-            T listItem = newInstance(annotationInfo.clazz);
+            list.add(parseContent(parser, annotationInfo));
 
-            while (parser.next() != XmlPullParser.END_TAG) {
-                if (parser.getEventType() != XmlPullParser.START_TAG) {
-                    continue;
-                }
-
-                String tagName = parser.getName();
-                if (annotationInfo.elementInfoMap.containsKey(tagName)) {
-                    ElementInfo info = annotationInfo.elementInfoMap.get(tagName);
-                    readElement(parser, info, listItem);
-                } else {
-                    XmlParserUtil.skip(parser);
-                }
+        }
 
-            }
+        listInfo.accessor.set(item, list);
+    }
 
-            list.add(listItem);
+    private static void readAttributes(XmlPullParser parser, AnnotationInfo<?> annotationInfo, Object item) throws IllegalAccessException {
+        if (annotationInfo.attributeInfoMap.isEmpty())
+            return;
 
+        for (int i = 0, count = parser.getAttributeCount(); i < count; i++) {
+            AttributeInfo info = annotationInfo.attributeInfoMap.get(parser.getAttributeName(i));
+            if (info != null)
+                info.set(item, parser.getAttributeValue(i));
         }
-
-        field.set(item, list);
     }
 
+    private static void readElement(XmlPullParser parser, ElementInfo elementInfo, Object item) throws IOException, XmlPullParserException, IllegalAccessException, InstantiationException, NoSuchMethodException, InvocationTargetException {
+        switch (elementInfo.kind) {
+            case ValueInfo.OBJECT:
+                elementInfo.accessor.set(item, parseObject(parser, elementInfo.nested()));
+                break;
 
-    private static <T> void readElement(XmlPullParser parser, ElementInfo elementInfo, T item) throws IOException, XmlPullParserException {
-        String tagName = parser.getName();
-        if (elementInfo.name.equals(tagName)) {
-            setObjectData(parser, elementInfo, item);
+            case ValueInfo.UNKNOWN:
+                XmlParserUtil.skip(parser);
+                break;
+
+            default:
+                setObjectData(parser, elementInfo, item);
+                break;
         }
     }
 
 
     private static boolean setObjectData(XmlPullParser parser, ElementInfo elementInfo, Object object) {
-        Field f = elementInfo.field;
-        Class<?> type = f.getType();
-
         String text;
 
         try {
@@ -143,54 +220,10 @@ public class XmlParser<T> {
             return false;
         }
 
-        switch (type.getSimpleName()) {
-            case "String":
-                try {
-                    f.set(object, text == null ? "" : text);
-                    return true;
-                } catch (IllegalAccessException e) {
-                    e.printStackTrace();
-                }
-                break;
-
-            case "int":
-                try {
-                    f.setInt(object, text == null ? 0 : Integer.parseInt(text));
-                    return true;
-                } catch (IllegalAccessException e) {
-                    e.printStackTrace();
-                }
-                break;
-
-            case "long":
-                try {
-                    f.setLong(object, text == null ? 0 : Long.parseLong(text));
-                    return true;
-                } catch (IllegalAccessException e) {
-                    e.printStackTrace();
-                }
-                break;
-
-            case "float":
-                try {
-                    f.setFloat(object, text == null ? 0 : Float.parseFloat(text));
-                    return true;
-                } catch (IllegalAccessException e) {
-                    e.printStackTrace();
-                }
-                break;
-
-            case "double":
-                try {
-                    f.setDouble(object, text == null ? 0 : Double.parseDouble(text));
-                    return true;
-                } catch (IllegalAccessException e) {
-                    e.printStackTrace();
-                }
-                break;
-
-            default:
-                break;
+        try {
+            return elementInfo.set(object, text);
+        } catch (IllegalAccessException e) {
+            e.printStackTrace();
         }
         return false;
 
@@ -206,7 +239,7 @@ public class XmlParser<T> {
         return in.replace(CDATA_HEAD, "").replace(CDATA_TAIL, "").trim();
     }
 
-    private static <T> T newInstance(Class<? extends T> clazz) throws InstantiationException, NoSuchMethodException, InvocationTargetException, IllegalAccessException {
+    static <T> T newInstance(Class<? extends T> clazz) throws InstantiationException, NoSuchMethodException, InvocationTargetException, IllegalAccessException {
         T item;
         try {
             item = clazz.newInstance();
@@ -0,0 +1,115 @@
+package mj.android.utils.xml;
+
+import org.xmlpull.v1.XmlPullParser;
+
+import java.io.Closeable;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * 목록 항목을 필요할 때 마다 읽어 반환한다. {@link XmlParser#stream(InputStream, Class)} 로 만든다.
+ * <p>
+ * 한 번에 하나의 항목만 메모리에 있으므로 문서의 크기와 관계없이 메모리 사용량이 일정하며,
+ * 문서를 다 받기 전에 앞의 항목을 사용할 수 있다.
+ * 읽는 도중 발생한 에러는 {@link IllegalStateException} 으로 감싸 던진다.
+ */
+public class XmlStream<E> implements Iterator<E>, Closeable {
+    private static final int ROOT_DEPTH = 1, CONTAINER_DEPTH = 2, ITEM_DEPTH = 3;
+
+    private final XmlPullParser parser;
+    private final InputStream is;
+    private final String root;
+    private final Set<String> containers;
+    private final AnnotationInfo<E> itemInfo;
+    private E next;
+    private boolean finished = false;
+
+    XmlStream(XmlPullParser parser, InputStream is, String root, Set<String> containers, AnnotationInfo<E> itemInfo) {
+        this.parser = parser;
+        this.is = is;
+        this.root = root;
+        this.containers = containers;
+        this.itemInfo = itemInfo;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next != null)
+            return true;
+
+        try {
+            next = read();
+        } catch (Exception e) {
+            close();
+            throw new IllegalStateException("cannot read next item", e);
+        }
+        return next != null;
+    }
+
+    @Override
+    public E next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+
+        E item = next;
+        next = null;
+        return item;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * 다음 항목을 읽는다.
+     *
+     * @return 문서가 끝났으면 null
+     */
+    E read() throws Exception {
+        if (finished)
+            return null;
+
+        while (true) {
+            int event = parser.next();
+            if (event == XmlPullParser.END_DOCUMENT) {
+                close();
+                return null;
+            }
+            if (event != XmlPullParser.START_TAG)
+                continue;
+
+            switch (parser.getDepth()) {
+                case ROOT_DEPTH:
+                    parser.require(XmlPullParser.START_TAG, null, root);
+                    break;
+
+                case CONTAINER_DEPTH:
+                    if (!containers.contains(parser.getName()))
+                        XmlParserUtil.skip(parser);
+                    break;
+
+                case ITEM_DEPTH:
+                    return XmlParser.parseContent(parser, itemInfo);
+
+                default:
+                    XmlParserUtil.skip(parser);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * 읽기를 멈추고 InputStream 을 닫는다. 다 읽으면 자동으로 닫힌다.
+     */
+    @Override
+    public void close() {
+        if (!finished) {
+            finished = true;
+            PullParserPool.recycle(parser);
+            XmlParser.closeQuietly(is);
+        }
+    }
+}